@@ -0,0 +1,75 @@
+package genbu;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+class ComparingChannel implements WritableByteChannel {
+    private static final long WINDOW_SIZE = 1l << 30;
+
+    private final FileChannel source;
+    private ByteBuffer expected;
+    private long position;
+
+    ComparingChannel(ByteBuffer expected) {
+        this.source = null;
+        this.expected = expected;
+    }
+
+    ComparingChannel(FileChannel source) {
+        this.source = source;
+        this.expected = ByteBuffer.allocate(0);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        int written = src.remaining();
+
+        while (src.hasRemaining()) {
+            if (!expected.hasRemaining() && !nextWindow()) {
+                throw new MismatchException();
+            }
+
+            int length = Math.min(src.remaining(), expected.remaining());
+
+            if (src.slice(src.position(), length)
+                    .mismatch(expected.slice(expected.position(), length)) != -1) {
+                throw new MismatchException();
+            }
+
+            src.position(src.position() + length);
+            expected.position(expected.position() + length);
+        }
+
+        return written;
+    }
+
+    boolean isComplete() throws IOException {
+        return !expected.hasRemaining() && !nextWindow();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public void close() {}
+
+    private boolean nextWindow() throws IOException {
+        if (source == null || position >= source.size()) {
+            return false;
+        }
+
+        var size = Math.min(WINDOW_SIZE, source.size() - position);
+        expected = source.map(FileChannel.MapMode.READ_ONLY, position, size);
+        position += size;
+
+        return true;
+    }
+
+    static class MismatchException extends IOException {
+        private static final long serialVersionUID = 2766491209744447186L;
+    }
+}
@@ -0,0 +1,211 @@
+package genbu;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import picocli.CommandLine;
+import picocli.CommandLine.Help;
+
+class Daemon {
+    private Daemon() {}
+
+    static void serve(Path socket) throws IOException {
+        var address = UnixDomainSocketAddress.of(socket);
+
+        createPrivateDirectory(socket.toAbsolutePath().getParent());
+
+        if (Files.exists(socket)) {
+            if (isListening(address)) {
+                throw new IOException(socket + ": A daemon is already listening on this socket");
+            }
+
+            Files.delete(socket);
+        }
+
+        try (var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(address);
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Files.deleteIfExists(socket);
+                } catch (IOException e) {
+                }
+            }));
+
+            if (socket.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+            }
+
+            while (true) {
+                var client = server.accept();
+
+                Thread.ofVirtual().start(() -> handle(client));
+            }
+        }
+    }
+
+    private static void createPrivateDirectory(Path directory) throws IOException {
+        if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return;
+        }
+
+        try {
+            Files.createDirectory(directory, PosixFilePermissions
+                    .asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } catch (FileAlreadyExistsException e) {
+        }
+
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)
+                || !DaemonClient.isOwnedByUser(directory)
+                || !PosixFilePermissions.toString(Files.getPosixFilePermissions(directory,
+                        LinkOption.NOFOLLOW_LINKS)).endsWith("------")) {
+            throw new IOException(directory
+                    + ": The socket directory must only be accessible by its owner "
+                    + System.getProperty("user.name"));
+        }
+    }
+
+    private static boolean isListening(UnixDomainSocketAddress address) {
+        try {
+            SocketChannel.open(address).close();
+
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void handle(SocketChannel channel) {
+        try (channel) {
+            var request = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel)));
+            var workingDirectory = Path.of(request.readUTF());
+            var ansi = request.readBoolean();
+            var args = new String[request.readInt()];
+
+            for (int i = 0; i < args.length; i++) {
+                args[i] = request.readUTF();
+            }
+
+            var out = new Frames(channel, DaemonClient.STDOUT);
+            var err = new PrintWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(new Frames(channel, DaemonClient.STDERR)),
+                    StandardCharsets.UTF_8), true);
+
+            var exitCode = new CommandLine(new Main(workingDirectory, new Input(request), out))
+                    .setOut(new PrintWriter(new OutputStreamWriter(Channels.newOutputStream(out),
+                            StandardCharsets.UTF_8), true))
+                    .setErr(err)
+                    .setColorScheme(Help.defaultColorScheme(ansi ? Help.Ansi.ON : Help.Ansi.OFF))
+                    .setExecutionExceptionHandler(new Main.PrintExceptionMessageHandler())
+                    .execute(args);
+
+            err.flush();
+
+            synchronized (channel) {
+                var exit = ByteBuffer.allocate(5).put(DaemonClient.EXIT).putInt(exitCode).flip();
+
+                while (exit.hasRemaining()) {
+                    channel.write(exit);
+                }
+            }
+        } catch (IOException e) {
+        }
+    }
+
+    private static class Input extends InputStream {
+        private final DataInputStream request;
+        private int remaining;
+        private boolean closed;
+
+        Input(DataInputStream request) {
+            this.request = request;
+        }
+
+        @Override
+        public int read() throws IOException {
+            var b = new byte[1];
+
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            while (remaining == 0) {
+                if (closed || (remaining = request.readInt()) == 0) {
+                    closed = true;
+
+                    return -1;
+                }
+            }
+
+            int read = request.read(b, off, Math.min(len, remaining));
+
+            if (read == -1) {
+                throw new EOFException();
+            }
+
+            remaining -= read;
+
+            return read;
+        }
+    }
+
+    private static class Frames implements WritableByteChannel {
+        private final SocketChannel channel;
+        private final byte type;
+
+        Frames(SocketChannel channel, byte type) {
+            this.channel = channel;
+            this.type = type;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int length = src.remaining();
+
+            if (length == 0) {
+                return 0;
+            }
+
+            synchronized (channel) {
+                var header = ByteBuffer.allocate(5).put(type).putInt(length).flip();
+
+                while (header.hasRemaining() || src.hasRemaining()) {
+                    channel.write(new ByteBuffer[] {header, src});
+                }
+            }
+
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() {}
+    }
+}
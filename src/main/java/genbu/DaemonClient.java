@@ -0,0 +1,167 @@
+package genbu;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class DaemonClient {
+    static final byte EXIT = 0;
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+
+    private DaemonClient() {}
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static Path defaultSocket() {
+        return Optional.ofNullable(System.getenv("XDG_RUNTIME_DIR")).filter(dir -> !dir.isBlank())
+                .map(Path::of)
+                .orElseGet(() -> Path.of(System.getProperty("java.io.tmpdir"),
+                        "genbu-" + System.getProperty("user.name")))
+                .resolve("genbu.sock");
+    }
+
+    static boolean isOwnedByUser(Path path) throws IOException {
+        var user = path.getFileSystem().getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+
+        return Files.getOwner(path, LinkOption.NOFOLLOW_LINKS).equals(user);
+    }
+
+    static int run(String[] args) {
+        var socket = defaultSocket();
+        var forwarded = new ArrayList<String>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--client")) {
+                continue;
+            } else if (args[i].equals("--socket") && i + 1 < args.length) {
+                socket = Path.of(args[++i]);
+            } else if (args[i].startsWith("--socket=")) {
+                socket = Path.of(args[i].substring("--socket=".length()));
+            } else {
+                forwarded.add(args[i]);
+            }
+        }
+
+        SocketChannel channel;
+
+        try {
+            if (!isOwnedByUser(socket)) {
+                System.err.println(socket + ": Socket is not owned by "
+                        + System.getProperty("user.name"));
+
+                return 1;
+            }
+
+            channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            return Main.execute(forwarded.toArray(String[]::new));
+        }
+
+        try (channel) {
+            return forward(channel, forwarded);
+        } catch (IOException e) {
+            System.err.println(socket + ": " + e.getMessage());
+
+            return 1;
+        }
+    }
+
+    private static boolean readsStdin(List<String> args) {
+        for (int i = 0; i < args.size(); i++) {
+            var arg = args.get(i);
+
+            if (arg.equals("-") || arg.equals("--stdin") || arg.equals("--lsp")
+                    || arg.equals("--files-from=-") || arg.equals("--files-from")
+                            && i + 1 < args.size() && args.get(i + 1).equals("-")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static int forward(SocketChannel channel, List<String> args) throws IOException {
+        var request = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+        request.writeUTF(Path.of("").toAbsolutePath().toString());
+        request.writeBoolean(System.console() != null);
+        request.writeInt(args.size());
+
+        for (var arg : args) {
+            request.writeUTF(arg);
+        }
+
+        if (readsStdin(args)) {
+            request.flush();
+
+            Thread.ofPlatform().daemon().start(() -> {
+                try {
+                    var buffer = new byte[1 << 16];
+
+                    for (int read; (read = System.in.read(buffer)) != -1;) {
+                        if (read > 0) {
+                            request.writeInt(read);
+                            request.write(buffer, 0, read);
+                            request.flush();
+                        }
+                    }
+
+                    request.writeInt(0);
+                    request.flush();
+                } catch (IOException e) {
+                }
+            });
+        } else {
+            request.writeInt(0);
+            request.flush();
+        }
+
+        var response = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(channel)));
+        OutputStream stdout = new FileOutputStream(FileDescriptor.out);
+        OutputStream stderr = new FileOutputStream(FileDescriptor.err);
+        var buffer = new byte[1 << 16];
+
+        while (true) {
+            var type = response.readByte();
+
+            if (type == EXIT) {
+                return response.readInt();
+            }
+
+            var target = type == STDOUT ? stdout : stderr;
+
+            for (int remaining = response.readInt(); remaining > 0;) {
+                int read = response.read(buffer, 0, Math.min(buffer.length, remaining));
+
+                if (read == -1) {
+                    throw new IOException("Daemon closed the connection");
+                }
+
+                target.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package genbu;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Pattern;
+
+class FileWalker {
+    private static final List<String> IGNORE_FILES = List.of(".gitignore", ".ignore");
+
+    private final boolean ignoreHidden;
+    private final boolean useIgnoreFiles;
+    private final Optional<PathMatcher> excludedMatcher;
+    private final Class<? extends BasicFileAttributes> attributesType;
+    private final Optional<Map<Path, IgnoreRules>> directories;
+    private final Queue<Path> discovered = new ConcurrentLinkedQueue<>();
+
+    FileWalker(boolean ignoreHidden, boolean useIgnoreFiles, Optional<PathMatcher> excludedMatcher,
+            boolean trackDirectories) {
+        var views = FileSystems.getDefault().supportedFileAttributeViews();
+
+        this.ignoreHidden = ignoreHidden;
+        this.useIgnoreFiles = useIgnoreFiles;
+        this.excludedMatcher = excludedMatcher;
+        this.attributesType = views.contains("dos") && !views.contains("posix")
+                ? DosFileAttributes.class
+                : BasicFileAttributes.class;
+        this.directories = trackDirectories ? Optional.of(new ConcurrentHashMap<>())
+                : Optional.empty();
+    }
+
+    List<Path> discoveredDirectories() {
+        var result = new ArrayList<Path>();
+
+        for (Path directory; (directory = discovered.poll()) != null;) {
+            result.add(directory);
+        }
+
+        return result;
+    }
+
+    void forget(Path directory) {
+        directories.ifPresent(map -> map.remove(directory));
+    }
+
+    void update(Path directory, Path entry, Map<Path, Long> files) throws IOException {
+        var rules = directories.map(map -> map.get(directory));
+
+        if (rules.isEmpty()) {
+            return;
+        }
+
+        var name = entry.getFileName().toString();
+        var attrs = Files.readAttributes(entry, attributesType, LinkOption.NOFOLLOW_LINKS);
+
+        if (isSkipped(entry, attrs) || useIgnoreFiles
+                && (attrs.isDirectory() && name.equals(".git")
+                        || rules.get().isIgnored(name, attrs.isDirectory()))) {
+            return;
+        }
+
+        if (attrs.isDirectory()) {
+            var found = new ConcurrentHashMap<Path, Long>();
+
+            try {
+                ForkJoinPool.commonPool()
+                        .invoke(new DirectoryWalk(entry, rules.get().enter(name), found));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            files.putAll(found);
+        } else if (isFormattable(entry, attrs)) {
+            files.put(entry, attrs.size());
+        }
+    }
+
+    void walk(Path root, Map<Path, Long> files) throws IOException {
+        var attrs = Files.readAttributes(root, attributesType, LinkOption.NOFOLLOW_LINKS);
+
+        if (isSkipped(root, attrs)) {
+            return;
+        }
+
+        if (!attrs.isDirectory()) {
+            if (isFormattable(root, attrs)) {
+                files.put(root, attrs.size());
+            }
+
+            return;
+        }
+
+        var found = new ConcurrentHashMap<Path, Long>();
+
+        try {
+            ForkJoinPool.commonPool().invoke(new DirectoryWalk(root,
+                    parentRules(root.toAbsolutePath().normalize()), found));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        files.putAll(found);
+    }
+
+    private IgnoreRules parentRules(Path absoluteRoot) throws IOException {
+        if (!useIgnoreFiles
+                || Files.exists(absoluteRoot.resolve(".git"), LinkOption.NOFOLLOW_LINKS)) {
+            return IgnoreRules.NONE;
+        }
+
+        var directories = new ArrayList<Path>();
+
+        for (var directory = absoluteRoot; directory.getParent() != null; directory =
+                directory.getParent()) {
+            directories.add(0, directory);
+
+            if (Files.exists(directory.getParent().resolve(".git"), LinkOption.NOFOLLOW_LINKS)) {
+                var rules = IgnoreRules.NONE;
+
+                for (var child : directories) {
+                    var parent = child.getParent();
+
+                    rules = IgnoreRules.load(rules, parent, true, parent.equals(
+                            directory.getParent())).enter(child.getFileName().toString());
+                }
+
+                return rules;
+            }
+        }
+
+        return IgnoreRules.NONE;
+    }
+
+    private boolean isSkipped(Path path, BasicFileAttributes attrs) {
+        return ignoreHidden && isHidden(path, attrs)
+                || excludedMatcher.map(matcher -> matcher.matches(path)).orElse(false);
+    }
+
+    static boolean isFormattable(Path file, BasicFileAttributes attrs) {
+        return attrs.isRegularFile() && file.toString().endsWith(".ttl");
+    }
+
+    private static boolean isHidden(Path path, BasicFileAttributes attrs) {
+        var name = path.getFileName();
+
+        return name != null && name.toString().startsWith(".")
+                || attrs instanceof DosFileAttributes dos && dos.isHidden();
+    }
+
+    private class DirectoryWalk extends RecursiveAction {
+        private static final long serialVersionUID = 4387913532052735049L;
+
+        private final Path directory;
+        private final IgnoreRules parentRules;
+        private final Map<Path, Long> files;
+
+        DirectoryWalk(Path directory, IgnoreRules parentRules, Map<Path, Long> files) {
+            this.directory = directory;
+            this.parentRules = parentRules;
+            this.files = files;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                var entries = new ArrayList<Path>();
+
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                    for (var entry : stream) {
+                        entries.add(entry);
+                    }
+                }
+
+                var rules = parentRules;
+
+                if (useIgnoreFiles) {
+                    var repositoryRoot = entries.contains(directory.resolve(".git"));
+
+                    if (repositoryRoot || IGNORE_FILES.stream()
+                            .anyMatch(name -> entries.contains(directory.resolve(name)))) {
+                        rules = IgnoreRules.load(rules, directory,
+                                repositoryRoot || parentRules.repository(), repositoryRoot);
+                    }
+                }
+
+                var current = rules;
+
+                directories.ifPresent(map -> {
+                    if (map.put(directory, current) == null) {
+                        discovered.add(directory);
+                    }
+                });
+
+                var subdirectories = new ArrayList<DirectoryWalk>();
+
+                for (var path : entries) {
+                    var name = path.getFileName().toString();
+                    var attrs = Files.readAttributes(path, attributesType,
+                            LinkOption.NOFOLLOW_LINKS);
+
+                    if (isSkipped(path, attrs) || useIgnoreFiles
+                            && (attrs.isDirectory() && name.equals(".git")
+                                    || rules.isIgnored(name, attrs.isDirectory()))) {
+                        continue;
+                    }
+
+                    if (attrs.isDirectory()) {
+                        subdirectories.add(new DirectoryWalk(path, rules.enter(name), files));
+                    } else if (isFormattable(path, attrs)) {
+                        files.put(path, attrs.size());
+                    }
+                }
+
+                invokeAll(subdirectories);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private record IgnoreRules(IgnoreRules parent, List<Rule> rules, String prefix,
+            boolean repository) {
+        static final IgnoreRules NONE = new IgnoreRules(null, List.of(), "", false);
+
+        static IgnoreRules load(IgnoreRules parent, Path directory, boolean repository,
+                boolean repositoryRoot) throws IOException {
+            var rules = new ArrayList<Rule>();
+
+            if (repositoryRoot) {
+                parse(directory.resolve(".git").resolve("info").resolve("exclude"), rules);
+            }
+
+            if (repository) {
+                parse(directory.resolve(".gitignore"), rules);
+            }
+
+            parse(directory.resolve(".ignore"), rules);
+
+            return new IgnoreRules(parent, rules, "", repository);
+        }
+
+        IgnoreRules enter(String name) {
+            if (this == NONE) {
+                return this;
+            }
+
+            return new IgnoreRules(parent == null ? null : parent.enter(name), rules,
+                    prefix + name + "/", repository);
+        }
+
+        boolean isIgnored(String name, boolean directory) {
+            for (var current = this; current != null; current = current.parent) {
+                for (int i = current.rules.size() - 1; i >= 0; i--) {
+                    var rule = current.rules.get(i);
+
+                    if ((directory || !rule.directoryOnly()) && rule.pattern()
+                            .matcher(rule.anchored() ? current.prefix + name : name).matches()) {
+                        return !rule.negated();
+                    }
+                }
+            }
+
+            return false;
+        }
+
+        private static void parse(Path file, List<Rule> rules) throws IOException {
+            if (!Files.isRegularFile(file)) {
+                return;
+            }
+
+            for (var line : Files.readAllLines(file)) {
+                Rule.parse(line).ifPresent(rules::add);
+            }
+        }
+    }
+
+    private record Rule(Pattern pattern, boolean anchored, boolean negated, boolean directoryOnly) {
+        static Optional<Rule> parse(String line) {
+            int end = line.length();
+
+            while (end > 0 && line.charAt(end - 1) == ' '
+                    && (end < 2 || line.charAt(end - 2) != '\\')) {
+                end--;
+            }
+
+            var glob = line.substring(0, end);
+
+            if (glob.isEmpty() || glob.startsWith("#")) {
+                return Optional.empty();
+            }
+
+            var negated = glob.startsWith("!");
+
+            if (negated || glob.startsWith("\\!") || glob.startsWith("\\#")) {
+                glob = glob.substring(1);
+            }
+
+            var directoryOnly = glob.endsWith("/");
+
+            if (directoryOnly) {
+                glob = glob.substring(0, glob.length() - 1);
+            }
+
+            var anchored = glob.contains("/");
+
+            if (glob.startsWith("/")) {
+                glob = glob.substring(1);
+            }
+
+            if (glob.isEmpty()) {
+                return Optional.empty();
+            }
+
+            var regex = new StringBuilder();
+
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+
+                if (glob.startsWith("**/", i) && (i == 0 || glob.charAt(i - 1) == '/')) {
+                    regex.append("(?:.*/)?");
+                    i += 2;
+                } else if (glob.startsWith("**", i) && i + 2 == glob.length()
+                        && (i == 0 || glob.charAt(i - 1) == '/')) {
+                    regex.append(".*");
+                    i++;
+                } else if (c == '*') {
+                    regex.append("[^/]*");
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else if (c == '[' && glob.indexOf(']', i + 2) != -1) {
+                    int close = glob.indexOf(']', i + 2);
+                    var set = glob.substring(i + 1, close);
+
+                    regex.append('[');
+
+                    if (set.startsWith("!") || set.startsWith("^")) {
+                        regex.append('^');
+                        set = set.substring(1);
+                    }
+
+                    regex.append(set.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                    i = close;
+                } else if (c == '\\' && i + 1 < glob.length()) {
+                    regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+
+            return Optional.of(new Rule(Pattern.compile(regex.toString()), anchored, negated,
+                    directoryOnly));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package genbu;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+public class FormattingCache {
+    private static final int MAGIC = 0x67656e62;
+
+    private static final int VERSION = 1;
+
+    private static final int HASH_BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final String fingerprint;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private FormattingCache(Path path, String fingerprint) {
+        this.path = path;
+        this.fingerprint = fingerprint;
+    }
+
+    public static FormattingCache load(Path path, String fingerprint) {
+        var cache = new FormattingCache(path, fingerprint);
+
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || !in.readUTF().equals(fingerprint)) {
+                return cache;
+            }
+
+            for (int count = in.readInt(); count > 0; count--) {
+                cache.entries.put(in.readUTF(),
+                        new Entry(in.readLong(), in.readLong(), in.readInt()));
+            }
+        } catch (IOException e) {
+            cache.entries.clear();
+        }
+
+        return cache;
+    }
+
+    public void save() throws IOException {
+        var temp = Files.createTempFile(path.toAbsolutePath().getParent(),
+                "." + path.getFileName(), ".tmp");
+
+        try {
+            try (var out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                var snapshot = Map.copyOf(entries);
+
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(fingerprint);
+                out.writeInt(snapshot.size());
+
+                for (var entry : snapshot.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().size());
+                    out.writeLong(entry.getValue().modified());
+                    out.writeInt(entry.getValue().hash());
+                }
+            }
+
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public FormattingTask skipFormatted(FormattingTask task) {
+        return (context, file, input, out) -> {
+            var key = file.toAbsolutePath().normalize().toString();
+            var attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            var entry = entries.get(key);
+
+            if (entry != null) {
+                if (entry.matches(attrs)) {
+                    return;
+                }
+
+                var hash = hash(file, input);
+
+                if (entry.size() == attrs.size() && entry.hash() == hash) {
+                    entries.put(key, Entry.of(attrs, hash));
+
+                    return;
+                }
+
+                entries.remove(key);
+            }
+
+            task.run(context, file, input, out);
+
+            var formattedAttrs = Files.readAttributes(file, BasicFileAttributes.class);
+            var unchanged = formattedAttrs.size() == attrs.size()
+                    && formattedAttrs.lastModifiedTime().equals(attrs.lastModifiedTime());
+
+            entries.put(key,
+                    Entry.of(formattedAttrs, hash(file, unchanged ? input : Optional.empty())));
+        };
+    }
+
+    private static int hash(Path file, Optional<byte[]> input) throws IOException {
+        var crc = new CRC32C();
+
+        if (input.isPresent()) {
+            crc.update(input.get());
+        } else {
+            try (var in = Files.newInputStream(file)) {
+                var buffer = new byte[HASH_BUFFER_SIZE];
+
+                for (int read; (read = in.read(buffer)) != -1;) {
+                    crc.update(buffer, 0, read);
+                }
+            }
+        }
+
+        return (int) crc.getValue();
+    }
+
+    private record Entry(long size, long modified, int hash) {
+        static Entry of(BasicFileAttributes attrs, int hash) {
+            return new Entry(attrs.size(), attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                    hash);
+        }
+
+        boolean matches(BasicFileAttributes attrs) {
+            return size == attrs.size()
+                    && modified == attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        }
+    }
+}
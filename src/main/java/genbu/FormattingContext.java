@@ -0,0 +1,328 @@
+package genbu;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.eclipse.rdf4j.model.Namespace;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.util.ModelException;
+import org.eclipse.rdf4j.model.util.Namespaces;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.helpers.BasicParserSettings;
+import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
+import org.eclipse.rdf4j.rio.helpers.RDFHandlerWrapper;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import genbu.parser.StatementScanner;
+import genbu.parser.TurtleParser;
+import genbu.writer.IndentationStyle;
+import genbu.writer.IndentingWriter;
+import genbu.writer.PrefixAlignment;
+import genbu.writer.TurtleWriter;
+
+public class FormattingContext {
+    private static final long IN_MEMORY_LIMIT = 64l << 20;
+
+    private static final Map<String, String> DEFAULT_NAMESPACES = Namespaces.DEFAULT_RDF4J
+            .stream().collect(Collectors.toMap(Namespace::getPrefix, Namespace::getName));
+
+    public record Options(IndentationStyle indentationStyle,
+            Optional<Function<Integer, PrefixAlignment>> prefixAlignment,
+            boolean discardUnusedPrefixes, boolean sortPrefixes, boolean checkDefaultNamespaces,
+            boolean firstPredicateInNewLine, boolean useRdfType, boolean parallelRendering,
+            boolean compact) {
+    }
+
+    private final Options options;
+
+    private final TurtleParser parser = new TurtleParser();
+    private final LinkedHashModel model = new LinkedHashModel();
+    private final IndentingWriter writer = new IndentingWriter((WritableByteChannel) null);
+    private final Map<String, String> namespaces = new LinkedHashMap<>();
+    private final StatementCollector collector = new StatementCollector(model, namespaces);
+
+    public FormattingContext(Options options) {
+        this.options = options;
+
+        parser.setSingleThreaded(true);
+        parser.setRDFHandler(collector);
+        parser.set(BasicParserSettings.NAMESPACES, Collections.emptySet());
+    }
+
+    public void format(InputStream in, WritableByteChannel out) throws IOException {
+        format(in, out, true);
+    }
+
+    public byte[] formatRange(byte[] input, int startLine, int endLine) throws IOException {
+        var statements = StatementScanner.scan(input).stream()
+                .filter(statement -> statement.directive() || statement.startLine() <= endLine
+                        && statement.endLine() >= startLine)
+                .toList();
+        var selected = statements.stream().filter(statement -> !statement.directive()).toList();
+
+        if (selected.isEmpty()) {
+            return input;
+        }
+
+        if (selected.stream().anyMatch(StatementScanner.Statement::blankNodeLabels)) {
+            throw new ModelException(
+                    "Cannot format a range containing labelled blank nodes, format the whole file instead");
+        }
+
+        int start = selected.get(0).start();
+        int end = selected.get(selected.size() - 1).end();
+        var fragment = new ByteArrayOutputStream(end - start + 1024);
+
+        for (var statement : statements) {
+            if (statement.directive() && statement.start() < start) {
+                fragment.write(input, statement.start(), statement.end() - statement.start());
+                fragment.write('\n');
+            }
+        }
+
+        fragment.write(input, start, end - start);
+
+        var rendered = new ByteArrayOutputStream(end - start);
+
+        format(new ByteArrayInputStream(fragment.toByteArray()), Channels.newChannel(rendered),
+                false);
+
+        var formatted = rendered.toByteArray();
+        int formattedStart = 0;
+        int formattedEnd = formatted.length;
+
+        while (formattedStart < formattedEnd
+                && (formatted[formattedStart] == '\n' || formatted[formattedStart] == '\r')) {
+            formattedStart++;
+        }
+
+        while (formattedEnd > formattedStart
+                && (formatted[formattedEnd - 1] == '\n' || formatted[formattedEnd - 1] == '\r')) {
+            formattedEnd--;
+        }
+
+        var output = new ByteArrayOutputStream(input.length + formattedEnd - formattedStart);
+
+        output.write(input, 0, start);
+        output.write(formatted, formattedStart, formattedEnd - formattedStart);
+        output.write(input, end, input.length - end);
+
+        return output.toByteArray();
+    }
+
+    public boolean formatRangeInPlace(Path file, Optional<byte[]> original, int startLine,
+            int endLine) throws IOException {
+        var input = original.isPresent() ? original.get() : Files.readAllBytes(file);
+        var formatted = formatRange(input, startLine, endLine);
+
+        if (Arrays.equals(formatted, input)) {
+            return false;
+        }
+
+        return replace(file, temp -> {
+            Files.write(temp, formatted);
+
+            return true;
+        });
+    }
+
+    private void format(InputStream in, WritableByteChannel out, boolean namespaceDeclarations)
+            throws IOException {
+        if (options.compact()) {
+            formatCompact(in, out, namespaceDeclarations);
+
+            return;
+        }
+
+        try {
+            parser.parse(in);
+
+            writer.reset(out);
+
+            var turtleWriter = new TurtleWriter(writer);
+            turtleWriter.set(BasicWriterSettings.INLINE_BLANK_NODES, true);
+            turtleWriter.setIndentationStyle(options.indentationStyle());
+
+            turtleWriter.setPrefixAlignment(options.prefixAlignment().flatMap(alignment -> namespaces
+                    .keySet().stream().map(String::length).max(Integer::compare).map(alignment)));
+
+            var declarations = options.sortPrefixes() ? new TreeMap<>(namespaces) : namespaces;
+
+            turtleWriter.setShortBlankNodeLabels(true);
+            turtleWriter.setFirstPredicateInNewLine(options.firstPredicateInNewLine());
+            turtleWriter.setUseRdfType(options.useRdfType());
+            turtleWriter.setParallelRendering(options.parallelRendering());
+            turtleWriter.setNamespaceDeclarations(namespaceDeclarations);
+            turtleWriter.setSingleThreaded(true);
+
+            turtleWriter.startRDF();
+
+            if (options.discardUnusedPrefixes()) {
+                declarations.keySet().retainAll(turtleWriter.usedPrefixes(declarations, model));
+            }
+
+            if (options.checkDefaultNamespaces()) {
+                declarations.forEach(FormattingContext::checkDefaultNamespace);
+            }
+
+            declarations.forEach(turtleWriter::handleNamespace);
+
+            turtleWriter.consumeModel(model);
+            turtleWriter.endRDF();
+        } finally {
+            reset();
+        }
+    }
+
+    private void formatCompact(InputStream in, WritableByteChannel out,
+            boolean namespaceDeclarations) throws IOException {
+        try {
+            writer.reset(out);
+
+            var turtleWriter = new TurtleWriter(writer);
+            turtleWriter.set(BasicWriterSettings.PRETTY_PRINT, false);
+            turtleWriter.setShortBlankNodeLabels(true);
+            turtleWriter.setUseRdfType(options.useRdfType());
+            turtleWriter.setNamespaceDeclarations(namespaceDeclarations);
+            turtleWriter.setSingleThreaded(true);
+
+            parser.setRDFHandler(new RDFHandlerWrapper(turtleWriter) {
+                @Override
+                public void handleNamespace(String prefix, String uri) {
+                    if (options.checkDefaultNamespaces()) {
+                        checkDefaultNamespace(prefix, uri);
+                    }
+
+                    super.handleNamespace(prefix, uri);
+                }
+
+                @Override
+                public void handleComment(String comment) {}
+            });
+            parser.parse(in);
+        } finally {
+            parser.setRDFHandler(collector);
+            reset();
+        }
+    }
+
+    private static void checkDefaultNamespace(String prefix, String name) {
+        var expectedName = DEFAULT_NAMESPACES.get(prefix);
+
+        if (Optional.ofNullable(expectedName).map(iri -> !iri.equals(name)).orElse(false)) {
+            throw new ModelException("Expected namespace prefix '" + prefix
+                    + "' to be associated with '" + expectedName + "', found '" + name + "'");
+        }
+    }
+
+    public boolean formatInPlace(Path file, Optional<byte[]> original) throws IOException {
+        var input = original.isPresent() || Files.size(file) > IN_MEMORY_LIMIT ? original
+                : Optional.of(Files.readAllBytes(file));
+
+        if (input.isPresent()) {
+            var output = new ByteArrayOutputStream(input.get().length);
+
+            format(new ByteArrayInputStream(input.get()), Channels.newChannel(output));
+
+            var formatted = output.toByteArray();
+
+            if (Arrays.equals(formatted, input.get())) {
+                return false;
+            }
+
+            return replace(file, temp -> {
+                Files.write(temp, formatted);
+
+                return true;
+            });
+        }
+
+        return replace(file, temp -> {
+            try (var in = Files.newInputStream(file);
+                    var out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                format(in, out);
+            }
+
+            return Files.mismatch(temp, file) != -1;
+        });
+    }
+
+    public boolean isFormatted(Path file, Optional<byte[]> original) throws IOException {
+        try (var source = original.isPresent() ? null : FileChannel.open(file);
+                var in = original.isPresent() ? new ByteArrayInputStream(original.get())
+                        : Files.newInputStream(file)) {
+            var expected = original.isPresent()
+                    ? new ComparingChannel(ByteBuffer.wrap(original.get()))
+                    : new ComparingChannel(source);
+
+            try {
+                format(in, expected);
+            } catch (RDFHandlerException e) {
+                if (e.getCause() instanceof ComparingChannel.MismatchException) {
+                    return false;
+                }
+
+                throw e;
+            }
+
+            return expected.isComplete();
+        }
+    }
+
+    private boolean replace(Path file, TempFileWriter contents) throws IOException {
+        var temp = Files.createTempFile(file.toAbsolutePath().getParent(),
+                "." + file.getFileName(), ".tmp");
+
+        try {
+            if (!contents.write(temp)) {
+                return false;
+            }
+
+            if (Files.getFileStore(file).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(file));
+            }
+
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            return true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TempFileWriter {
+        boolean write(Path temp) throws IOException;
+    }
+
+    public void reset() {
+        model.clear();
+
+        namespaces.clear();
+
+        writer.reset(null);
+    }
+}
@@ -0,0 +1,235 @@
+package genbu;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+public class FormattingPipeline implements AutoCloseable {
+    private static final long PREFETCH_LIMIT = 64l << 20;
+    private static final long BUFFER_LIMIT = Math.min(Runtime.getRuntime().maxMemory() / 4, 1l << 30);
+
+    private static final int FILES_IN_FLIGHT_PER_JOB = 4;
+
+    private final FormattingTask task;
+    private final int jobs;
+    private final ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService formatters;
+    private final ThreadLocal<FormattingContext> contexts;
+
+    public FormattingPipeline(FormattingContext.Options options, FormattingTask task, int jobs) {
+        this.task = task;
+        this.jobs = jobs;
+        this.formatters = Executors.newWorkStealingPool(jobs);
+        this.contexts = ThreadLocal.withInitial(() -> new FormattingContext(options));
+    }
+
+    public boolean run(SortedMap<Path, Long> files, WritableByteChannel out,
+            BiConsumer<Path, Exception> onError) throws InterruptedException {
+        var results = new ConcurrentHashMap<Path, CompletableFuture<Optional<Exception>>>();
+        var outputs = new ConcurrentHashMap<Path, Spool>();
+        var prefetched = new Semaphore(jobs * FILES_IN_FLIGHT_PER_JOB);
+        var buffered = new AtomicLong();
+        var ordered = List.copyOf(files.keySet());
+        var largestFirst = ordered.stream()
+                .sorted(Comparator.comparing(files::get, Comparator.reverseOrder())).toList();
+
+        for (var file : ordered) {
+            results.put(file, new CompletableFuture<>());
+            outputs.put(file, new Spool(buffered));
+        }
+
+        var submitter = Thread.ofVirtual().start(() -> {
+            try {
+                for (var file : largestFirst) {
+                    prefetched.acquire();
+
+                    CompletableFuture
+                            .supplyAsync(() -> prefetch(file, files.get(file)), readers)
+                            .handleAsync((input, e) -> {
+                                prefetched.release();
+
+                                return e == null ? format(file, input, outputs.get(file))
+                                        : Optional.<Exception>of(
+                                                e.getCause() instanceof Exception cause ? cause
+                                                        : new CompletionException(e));
+                            }, formatters).whenComplete((error, e) -> results.get(file)
+                                    .complete(e == null ? error
+                                            : Optional.of(e instanceof Exception exception
+                                                    ? exception
+                                                    : new CompletionException(e))));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        var failed = false;
+
+        try {
+            for (var file : ordered) {
+                var error = Optional.<Exception>empty();
+
+                try (var output = outputs.get(file)) {
+                    try {
+                        output.attach(out);
+                    } finally {
+                        error = results.get(file).get();
+                    }
+                } catch (IOException e) {
+                    error = error.or(() -> Optional.of(e));
+                }
+
+                results.remove(file);
+                outputs.remove(file);
+
+                if (error.orElse(null) instanceof Exception e) {
+                    onError.accept(file, e);
+                    failed = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            submitter.interrupt();
+        }
+
+        return !failed;
+    }
+
+    @Override
+    public void close() {
+        readers.shutdownNow();
+        formatters.shutdownNow();
+    }
+
+    private Optional<byte[]> prefetch(Path file, long size) {
+        try {
+            if (size > PREFETCH_LIMIT) {
+                return Optional.empty();
+            }
+
+            return Optional.of(Files.readAllBytes(file));
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private Optional<Exception> format(Path file, Optional<byte[]> input, Spool output) {
+        try {
+            task.run(contexts.get(), file, input, output);
+
+            return Optional.empty();
+        } catch (Exception e) {
+            return Optional.of(e);
+        }
+    }
+
+    private static class Spool implements WritableByteChannel {
+        private final AtomicLong buffered;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private FileChannel file;
+        private WritableByteChannel target;
+        private boolean open = true;
+
+        Spool(AtomicLong buffered) {
+            this.buffered = buffered;
+        }
+
+        @Override
+        public synchronized int write(ByteBuffer src) throws IOException {
+            var length = src.remaining();
+
+            if (target != null) {
+                while (src.hasRemaining()) {
+                    target.write(src);
+                }
+
+                return length;
+            }
+
+            if (file == null && buffered.addAndGet(length) > BUFFER_LIMIT) {
+                buffered.addAndGet(-length);
+                spill();
+            }
+
+            if (file == null) {
+                return Channels.newChannel(memory).write(src);
+            }
+
+            while (src.hasRemaining()) {
+                file.write(src);
+            }
+
+            return length;
+        }
+
+        synchronized void attach(WritableByteChannel out) throws IOException {
+            if (file == null) {
+                memory.writeTo(Channels.newOutputStream(out));
+                buffered.addAndGet(-memory.size());
+                memory = null;
+            } else {
+                for (long position = 0, size = file.size(); position < size;) {
+                    position += file.transferTo(position, size - position, out);
+                }
+
+                file.close();
+                file = null;
+            }
+
+            target = out;
+        }
+
+        @Override
+        public synchronized boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (!open) {
+                return;
+            }
+
+            open = false;
+
+            if (memory != null) {
+                buffered.addAndGet(-memory.size());
+                memory = null;
+            }
+
+            if (file != null) {
+                file.close();
+            }
+        }
+
+        private void spill() throws IOException {
+            file = FileChannel.open(Files.createTempFile("genbu", ".ttl"),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+
+            memory.writeTo(Channels.newOutputStream(file));
+            buffered.addAndGet(-memory.size());
+            memory = null;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package genbu;
+
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+@FunctionalInterface
+public interface FormattingTask {
+    void run(FormattingContext context, Path file, Optional<byte[]> input, WritableByteChannel out)
+            throws Exception;
+}
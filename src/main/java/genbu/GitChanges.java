@@ -0,0 +1,63 @@
+package genbu;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+class GitChanges {
+    private GitChanges() {}
+
+    static List<Path> since(Path path, String revision) throws IOException, InterruptedException {
+        var directory = Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+        var root = Path.of(git(directory, "rev-parse", "--show-toplevel").strip()).toRealPath();
+        var target = path.toRealPath();
+        var pathspec = root.equals(target) ? "." : root.relativize(target).toString();
+
+        var changed = new ArrayList<Path>();
+
+        for (var output : List.of(
+                git(root, "diff", "--name-only", "-z", "--no-renames", "--diff-filter=d",
+                        revision, "--", pathspec),
+                git(root, "ls-files", "-z", "--others", "--exclude-standard", "--", pathspec))) {
+            for (var name : output.split("\0")) {
+                if (!name.isEmpty()) {
+                    changed.add(path.normalize().resolve(target.relativize(root.resolve(name))));
+                }
+            }
+        }
+
+        return changed;
+    }
+
+    private static String git(Path directory, String... arguments)
+            throws IOException, InterruptedException {
+        var command = new ArrayList<>(List.of("git", "-C", directory.toString()));
+        command.addAll(Arrays.asList(arguments));
+
+        var process = new ProcessBuilder(command).start();
+        process.getOutputStream().close();
+
+        var error = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new String(process.getErrorStream().readAllBytes(),
+                        StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                return e.getMessage();
+            }
+        });
+        var output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+        if (process.waitFor() != 0) {
+            throw new IOException(error.join().strip().lines().reduce((first, second) -> second)
+                    .orElse("git " + arguments[0] + " failed with exit code "
+                            + process.exitValue()));
+        }
+
+        return output;
+    }
+}
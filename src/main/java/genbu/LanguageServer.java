@@ -0,0 +1,609 @@
+package genbu;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.eclipse.rdf4j.model.Namespace;
+import org.eclipse.rdf4j.model.impl.SimpleNamespace;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+import org.eclipse.rdf4j.rio.helpers.BasicParserSettings;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import genbu.parser.StatementScanner;
+import genbu.parser.TurtleParser;
+
+class LanguageServer {
+    private static final int METHOD_NOT_FOUND = -32601;
+    private static final int REQUEST_FAILED = -32803;
+
+    private static final int INCREMENTAL_SYNC = 2;
+    private static final int ERROR_SEVERITY = 1;
+
+    private static final Pattern LOCATION = Pattern.compile(" \\[line -?\\d+(, column -?\\d+)?\\]$");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, Document> documents = new HashMap<>();
+    private final FormattingContext context;
+    private final Validator validator = new Validator();
+    private final InputStream in;
+    private final WritableByteChannel out;
+
+    private boolean shutdown;
+
+    LanguageServer(FormattingContext.Options options, InputStream in, WritableByteChannel out) {
+        this.context = new FormattingContext(options);
+        this.in = new BufferedInputStream(in);
+        this.out = out;
+    }
+
+    int serve() throws IOException {
+        while (true) {
+            var message = read();
+
+            if (message.isEmpty()) {
+                return shutdown ? 0 : 1;
+            }
+
+            var method = message.get().path("method").asText();
+            var id = message.get().get("id");
+            var params = message.get().path("params");
+
+            if (method.equals("exit")) {
+                return shutdown ? 0 : 1;
+            }
+
+            try {
+                var result = handle(method, params);
+
+                if (id != null) {
+                    respond(id, result);
+                }
+            } catch (UnknownMethodException e) {
+                if (id != null) {
+                    fail(id, METHOD_NOT_FOUND, e.getMessage());
+                }
+            } catch (Exception e) {
+                if (id != null) {
+                    fail(id, REQUEST_FAILED, message(e));
+                }
+            }
+        }
+    }
+
+    private JsonNode handle(String method, JsonNode params) throws IOException {
+        switch (method) {
+            case "initialize" -> {
+                var result = mapper.createObjectNode();
+                var capabilities = result.putObject("capabilities");
+
+                capabilities.putObject("textDocumentSync").put("openClose", true).put("change",
+                        INCREMENTAL_SYNC);
+                capabilities.put("documentFormattingProvider", true);
+                capabilities.put("documentRangeFormattingProvider", true);
+                result.putObject("serverInfo").put("name", "genbu");
+
+                return result;
+            }
+            case "shutdown" -> {
+                shutdown = true;
+
+                return mapper.nullNode();
+            }
+            case "textDocument/didOpen" -> {
+                var item = params.path("textDocument");
+                var document = new Document(item.path("text").asText());
+
+                documents.put(item.path("uri").asText(), document);
+                publishDiagnostics(item.path("uri").asText(), document);
+
+                return null;
+            }
+            case "textDocument/didChange" -> {
+                var uri = params.path("textDocument").path("uri").asText();
+                var document = documents.get(uri);
+
+                if (document == null) {
+                    return null;
+                }
+
+                for (var change : params.path("contentChanges")) {
+                    if (change.has("range")) {
+                        document.replace(change.get("range"), change.path("text").asText());
+                    } else {
+                        document.replace(0, document.text.length(), change.path("text").asText());
+                    }
+                }
+
+                publishDiagnostics(uri, document);
+
+                return null;
+            }
+            case "textDocument/didClose" -> {
+                var uri = params.path("textDocument").path("uri").asText();
+
+                documents.remove(uri);
+                notify("textDocument/publishDiagnostics",
+                        mapper.createObjectNode().put("uri", uri).set("diagnostics",
+                                mapper.createArrayNode()));
+
+                return null;
+            }
+            case "textDocument/formatting" -> {
+                var document = document(params);
+                var output = new ByteArrayOutputStream(document.text.length());
+
+                context.format(new ByteArrayInputStream(document.bytes()),
+                        Channels.newChannel(output));
+
+                return edits(document, output.toString(StandardCharsets.UTF_8));
+            }
+            case "textDocument/rangeFormatting" -> {
+                var document = document(params);
+                var start = params.path("range").path("start");
+                var end = params.path("range").path("end");
+                int endLine = end.path("line").asInt();
+
+                if (end.path("character").asInt() == 0 && endLine > start.path("line").asInt()) {
+                    endLine--;
+                }
+
+                return edits(document, new String(context.formatRange(document.bytes(),
+                        start.path("line").asInt() + 1, endLine + 1), StandardCharsets.UTF_8));
+            }
+            default -> {
+                if (method.startsWith("$/") || method.equals("initialized")) {
+                    return null;
+                }
+
+                throw new UnknownMethodException(method);
+            }
+        }
+    }
+
+    private Document document(JsonNode params) {
+        var uri = params.path("textDocument").path("uri").asText();
+        var document = documents.get(uri);
+
+        if (document == null) {
+            throw new IllegalArgumentException(uri + ": Document is not open");
+        }
+
+        return document;
+    }
+
+    private ArrayNode edits(Document document, String formatted) {
+        var edits = mapper.createArrayNode();
+        var text = document.text;
+        int prefix = 0;
+        int limit = Math.min(text.length(), formatted.length());
+
+        while (prefix < limit && text.charAt(prefix) == formatted.charAt(prefix)) {
+            prefix++;
+        }
+
+        if (prefix == text.length() && prefix == formatted.length()) {
+            return edits;
+        }
+
+        if (prefix > 0 && Character.isHighSurrogate(text.charAt(prefix - 1))) {
+            prefix--;
+        }
+
+        int suffix = 0;
+
+        while (suffix < limit - prefix && text.charAt(text.length() - 1 - suffix) == formatted
+                .charAt(formatted.length() - 1 - suffix)) {
+            suffix++;
+        }
+
+        if (suffix > 0 && Character.isLowSurrogate(text.charAt(text.length() - suffix))) {
+            suffix--;
+        }
+
+        var edit = edits.addObject();
+
+        edit.set("range", range(document.position(prefix),
+                document.position(text.length() - suffix)));
+        edit.put("newText", formatted.substring(prefix, formatted.length() - suffix));
+
+        return edits;
+    }
+
+    private void publishDiagnostics(String uri, Document document) throws IOException {
+        var diagnostics = mapper.createArrayNode();
+
+        for (var problem : document.validate(validator)) {
+            var diagnostic = diagnostics.addObject();
+            int line = problem.line() - 1;
+
+            diagnostic.set("range", range(new int[] {line, 0},
+                    new int[] {line, document.lineLength(line)}));
+            diagnostic.put("severity", ERROR_SEVERITY);
+            diagnostic.put("source", "genbu");
+            diagnostic.put("message", problem.message());
+        }
+
+        notify("textDocument/publishDiagnostics",
+                mapper.createObjectNode().put("uri", uri).set("diagnostics", diagnostics));
+    }
+
+    private ObjectNode range(int[] start, int[] end) {
+        var range = mapper.createObjectNode();
+
+        range.putObject("start").put("line", start[0]).put("character", start[1]);
+        range.putObject("end").put("line", end[0]).put("character", end[1]);
+
+        return range;
+    }
+
+    private void respond(JsonNode id, JsonNode result) throws IOException {
+        var response = mapper.createObjectNode().put("jsonrpc", "2.0");
+
+        response.set("id", id);
+        response.set("result", result);
+        write(response);
+    }
+
+    private void fail(JsonNode id, int code, String message) throws IOException {
+        var response = mapper.createObjectNode().put("jsonrpc", "2.0");
+
+        response.set("id", id);
+        response.putObject("error").put("code", code).put("message", message);
+        write(response);
+    }
+
+    private void notify(String method, JsonNode params) throws IOException {
+        var notification = mapper.createObjectNode().put("jsonrpc", "2.0").put("method", method);
+
+        notification.set("params", params);
+        write(notification);
+    }
+
+    private void write(JsonNode message) throws IOException {
+        var content = mapper.writeValueAsBytes(message);
+        var header = ("Content-Length: " + content.length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        var buffers = new ByteBuffer[] {ByteBuffer.wrap(header), ByteBuffer.wrap(content)};
+
+        for (var buffer : buffers) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    private Optional<JsonNode> read() throws IOException {
+        int length = -1;
+
+        while (true) {
+            var line = readHeaderLine();
+
+            if (line == null) {
+                return Optional.empty();
+            }
+
+            if (line.isEmpty()) {
+                if (length >= 0) {
+                    break;
+                }
+
+                continue;
+            }
+
+            int colon = line.indexOf(':');
+
+            if (colon != -1 && line.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                length = Integer.parseInt(line.substring(colon + 1).trim());
+            }
+        }
+
+        var content = in.readNBytes(length);
+
+        if (content.length < length) {
+            throw new EOFException();
+        }
+
+        return Optional.of(mapper.readTree(content));
+    }
+
+    private String readHeaderLine() throws IOException {
+        var line = new StringBuilder();
+
+        for (int b; (b = in.read()) != '\n';) {
+            if (b == -1) {
+                return line.isEmpty() ? null : line.toString();
+            }
+
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+
+        return line.toString();
+    }
+
+    private static String message(Exception e) {
+        var message = e.getMessage();
+
+        return e instanceof RDFParseException && message != null
+                ? LOCATION.matcher(message).replaceFirst("")
+                : message;
+    }
+
+    private record Problem(int line, String message) {
+    }
+
+    private static class UnknownMethodException extends RuntimeException {
+        private static final long serialVersionUID = 5183306477160852935L;
+
+        UnknownMethodException(String method) {
+            super("Unknown method " + method);
+        }
+    }
+
+    private static class Validator extends TurtleParser {
+        private final Map<String, String> declared = new HashMap<>();
+
+        private String base;
+
+        Validator() {
+            setSingleThreaded(true);
+            setRDFHandler(new AbstractRDFHandler() {
+                @Override
+                public void handleNamespace(String prefix, String uri) {
+                    declared.put(prefix, uri);
+                }
+            });
+        }
+
+        @Override
+        protected void setBaseURI(String uri) {
+            super.setBaseURI(uri);
+            base = uri;
+        }
+    }
+
+    private static class Entry {
+        private final String text;
+
+        private StatementScanner.Statement statement;
+        private boolean validated;
+        private long directives;
+        private Optional<Problem> problem;
+        private Map<String, String> declared;
+        private String base;
+
+        Entry(StatementScanner.Statement statement, String text) {
+            this.statement = statement;
+            this.text = text;
+        }
+
+        void validate(Validator validator, Set<Namespace> namespaces, String base,
+                long directives) throws IOException {
+            validator.declared.clear();
+            validator.base = base;
+            validator.set(BasicParserSettings.NAMESPACES, namespaces);
+
+            try {
+                validator.parse(new StringReader(text), base);
+                problem = Optional.empty();
+            } catch (RDFParseException e) {
+                problem = Optional.of(new Problem(Math.max(0, (int) e.getLineNumber() - 1),
+                        message(e)));
+            }
+
+            this.declared = Map.copyOf(validator.declared);
+            this.base = validator.base;
+            this.directives = directives;
+            this.validated = true;
+        }
+    }
+
+    private static class Document {
+        private final StringBuilder text = new StringBuilder();
+        private final List<Entry> entries = new ArrayList<>();
+
+        Document(String text) {
+            replace(0, 0, text);
+        }
+
+        byte[] bytes() {
+            return text.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        void replace(JsonNode range, String replacement) {
+            int start = offset(range.path("start"));
+            int end = Math.max(start, offset(range.path("end")));
+
+            replace(start, end, replacement);
+        }
+
+        void replace(int start, int end, String replacement) {
+            int offset = replacement.length() - (end - start);
+            int lines = lines(replacement, 0, replacement.length()) - lines(text, start, end);
+
+            text.replace(start, end, replacement);
+
+            int first = first(start);
+            int position = first == 0 ? 0 : entries.get(first - 1).statement.end();
+            int line = first == 0 ? 1
+                    : entries.get(first - 1).statement.endLine()
+                            + lines(text, position - 1, position);
+            var scanner = new StatementScanner(text, position, line);
+            var scanned = new ArrayList<Entry>();
+            int next = first;
+
+            while (true) {
+                var statement = scanner.next();
+
+                if (statement.isEmpty()) {
+                    next = entries.size();
+
+                    break;
+                }
+
+                int statementStart = statement.get().start();
+
+                while (next < entries.size() && (entries.get(next).statement.start() < end
+                        || entries.get(next).statement.start() + offset < statementStart)) {
+                    next++;
+                }
+
+                if (next < entries.size()
+                        && entries.get(next).statement.start() + offset == statementStart) {
+                    break;
+                }
+
+                scanned.add(new Entry(statement.get(),
+                        text.substring(statementStart, statement.get().end())));
+            }
+
+            if (offset != 0 || lines != 0) {
+                for (var entry : entries.subList(next, entries.size())) {
+                    entry.statement = entry.statement.shift(offset, lines);
+                }
+            }
+
+            entries.subList(first, next).clear();
+            entries.addAll(first, scanned);
+        }
+
+        List<Problem> validate(Validator validator) throws IOException {
+            var problems = new ArrayList<Problem>();
+            var namespaces = new HashMap<String, String>();
+            Set<Namespace> declared = Set.of();
+            String base = null;
+            long directives = 0;
+
+            for (var entry : entries) {
+                if (!entry.validated || entry.directives != directives) {
+                    if (declared == null) {
+                        declared = namespaces.entrySet().stream()
+                                .map(namespace -> (Namespace) new SimpleNamespace(
+                                        namespace.getKey(), namespace.getValue()))
+                                .collect(Collectors.toUnmodifiableSet());
+                    }
+
+                    entry.validate(validator, declared, base, directives);
+                }
+
+                entry.problem.ifPresent(relative -> problems.add(new Problem(
+                        entry.statement.startLine() + relative.line(), relative.message())));
+
+                if (entry.statement.directive()) {
+                    if (!entry.declared.isEmpty()) {
+                        namespaces.putAll(entry.declared);
+                        declared = null;
+                    }
+
+                    base = entry.base;
+                    directives = directives * 31 + entry.text.hashCode();
+                }
+            }
+
+            return problems;
+        }
+
+        private int first(int offset) {
+            int low = 0;
+            int high = entries.size();
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+
+                if (entries.get(middle).statement.end() < offset) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        private static int lines(CharSequence text, int start, int end) {
+            int lines = 0;
+
+            for (int i = start; i < end; i++) {
+                if (text.charAt(i) == '\n') {
+                    lines++;
+                }
+            }
+
+            return lines;
+        }
+
+        int[] position(int offset) {
+            int line = 0;
+            int lineStart = 0;
+
+            for (int i = 0; i < offset; i++) {
+                if (text.charAt(i) == '\n') {
+                    line++;
+                    lineStart = i + 1;
+                }
+            }
+
+            return new int[] {line, offset - lineStart};
+        }
+
+        int lineLength(int line) {
+            int start = lineStart(line);
+            int end = start;
+
+            while (end < text.length() && text.charAt(end) != '\n' && text.charAt(end) != '\r') {
+                end++;
+            }
+
+            return end - start;
+        }
+
+        private int offset(JsonNode position) {
+            int start = lineStart(position.path("line").asInt());
+            int end = start;
+
+            while (end < text.length() && text.charAt(end) != '\n') {
+                end++;
+            }
+
+            return Math.min(start + position.path("character").asInt(), end);
+        }
+
+        private int lineStart(int line) {
+            int start = 0;
+
+            for (int current = 0; current < line && start < text.length(); start++) {
+                if (text.charAt(start) == '\n') {
+                    current++;
+
+                    if (current == line) {
+                        start++;
+
+                        break;
+                    }
+                }
+            }
+
+            return Math.min(start, text.length());
+        }
+    }
+}
@@ -1,41 +1,43 @@
 package genbu;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
-import java.util.stream.Collectors;
-import org.eclipse.rdf4j.model.IRI;
-import org.eclipse.rdf4j.model.Namespace;
-import org.eclipse.rdf4j.model.impl.DynamicModel;
-import org.eclipse.rdf4j.model.impl.LinkedHashModelFactory;
-import org.eclipse.rdf4j.model.util.ModelException;
-import org.eclipse.rdf4j.model.util.Namespaces;
-import org.eclipse.rdf4j.rio.helpers.BasicParserSettings;
-import org.eclipse.rdf4j.rio.helpers.BasicWriterSettings;
-import org.eclipse.rdf4j.rio.helpers.StatementCollector;
-import genbu.parser.TurtleParser;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import genbu.writer.IndentationStyle;
 import genbu.writer.PrefixAlignment;
-import genbu.writer.TurtleWriter;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.IExecutionExceptionHandler;
 import picocli.CommandLine.IVersionProvider;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
 import picocli.CommandLine.ParseResult;
 import picocli.CommandLine.Spec;
@@ -55,18 +57,43 @@ enum PrefixAlignmentValues {
         usageHelpAutoWidth = true, abbreviateSynopsis = true, descriptionHeading = "%n",
         parameterListHeading = "%nParameters:%n", optionListHeading = "%nOptions:%n")
 public class Main implements Callable<Integer> {
+    private static final Path STDIN_PATH = Path.of("-");
+
+    private static final long WATCH_DEBOUNCE_MILLIS = 50;
+
+    private static final Pattern LINE_RANGE = Pattern.compile("(\\d{1,9}):(\\d{1,9})");
+
     @Parameters(defaultValue = ".", paramLabel = "<files>",
-            description = "List of files or directories to format [default: ${DEFAULT-VALUE}]")
+            description = "List of files or directories to format, or - for standard input [default: ${DEFAULT-VALUE}]")
     private Set<Path> paths;
 
+    @Option(names = "--stdin", description = "Format standard input to standard output")
+    private boolean stdin;
+
+    @Option(names = "--stdin-filename", paramLabel = "<file>",
+            description = "Path of the file read from standard input, used for --exclude and messages")
+    private Optional<Path> stdinFilename;
+
+    @Option(names = "--files-from", paramLabel = "<file>",
+            description = "Read the files to format from a file, or - for standard input, separated by NUL characters or new lines; entries that are not regular .ttl files are skipped")
+    private Optional<Path> filesFrom;
+
     @Option(names = {"-H", "--hidden"}, defaultValue = "true",
             description = "Search hidden files and directories")
     private boolean ignoreHidden;
 
+    @Option(names = "--noIgnore",
+            description = "Don't skip files and directories matched by .gitignore and .ignore files")
+    private boolean noIgnore;
+
     @Option(names = "--exclude", paramLabel = "<pattern>",
             description = "List of patterns, used to omit files and/or directories from analysis")
     private Set<String> excludedPatterns;
 
+    @Option(names = "--changed-since", paramLabel = "<rev>",
+            description = "Only format files that changed in git since the given revision, and untracked files")
+    private Optional<String> changedSince;
+
     @Option(names = "--indentStyle", defaultValue = "space", paramLabel = "<style>",
             description = """
                     Note that when choosing tab, alignPredicates and alignObjects are automatically treated as false.
@@ -99,51 +126,207 @@ public class Main implements Callable<Integer> {
     @Option(names = "--useRdfType", description = "Use rdf:type instead of a")
     private boolean useRdfType;
 
+    @Option(names = {"-w", "--write"},
+            description = "Write formatted output back to files that are not already formatted")
+    private boolean write;
+
+    @Option(names = "--range", paramLabel = "<startLine>:<endLine>",
+            description = "Only format the statements overlapping the given lines of a single file")
+    private Optional<String> range;
+
+    @Option(names = {"-c", "--check"},
+            description = "Check that files are formatted without writing any output")
+    private boolean check;
+
+    @Option(names = "--cache",
+            description = "Skip files that are known to be formatted with --check or --write")
+    private boolean cache;
+
+    @Option(names = "--cacheLocation", defaultValue = ".genbu-cache", paramLabel = "<file>",
+            description = "[default: ${DEFAULT-VALUE}]")
+    private Path cacheLocation;
+
+    @Option(names = "--watch",
+            description = "Keep running and format files again when they change")
+    private boolean watch;
+
+    @Option(names = {"-j", "--jobs"}, defaultValue = "1", paramLabel = "<jobs>",
+            description = "Number of files to format in parallel [default: ${DEFAULT-VALUE}]")
+    private int jobs;
+
+    @Option(names = "--compact",
+            description = "Write statements as they are parsed with minimal whitespace, keeping all declared prefixes")
+    private boolean compact;
+
+    @Option(names = "--parallelRendering",
+            description = "Render the subject blocks of each file in parallel")
+    private boolean parallelRendering;
+
+    @Option(names = "--daemon",
+            description = "Keep running and format for clients connecting to the socket")
+    private boolean daemon;
+
+    @Option(names = "--client",
+            description = "Forward this invocation to a running daemon, or run it directly if there is none")
+    private boolean client;
+
+    @Option(names = "--socket", paramLabel = "<file>",
+            description = "Socket of the daemon, in a directory only accessible by the current user [default: $XDG_RUNTIME_DIR/genbu.sock or <tmpdir>/genbu-<user>/genbu.sock]")
+    private Optional<Path> socket;
+
+    @Option(names = "--lsp",
+            description = "Run a language server on standard input and output")
+    private boolean lsp;
+
     @Spec
     CommandSpec spec;
 
+    private final Path workingDirectory;
+    private final InputStream in;
+    private final WritableByteChannel out;
+
+    public Main() {
+        this(Path.of(""), System.in, new FileOutputStream(FileDescriptor.out).getChannel());
+    }
+
+    Main(Path workingDirectory, InputStream in, WritableByteChannel out) {
+        this.workingDirectory = workingDirectory;
+        this.in = in;
+        this.out = out;
+    }
+
     @Override
-    public Integer call() {
-        Set<Path> files = new HashSet<>();
-        var excludedMatcher = Optional.ofNullable(excludedPatterns).map(patterns -> FileSystems
-                .getDefault().getPathMatcher("glob:{" + String.join(",", patterns) + "}"));
+    public Integer call() throws IOException {
+        if (daemon) {
+            if (workingDirectory.isAbsolute()) {
+                throw new ParameterException(spec.commandLine(),
+                        "--daemon cannot be forwarded to a daemon");
+            }
+
+            Daemon.serve(socket.orElseGet(DaemonClient::defaultSocket));
+
+            return 0;
+        }
+
+        var options = new FormattingContext.Options(switch (indentationStyle) {
+            case space -> IndentationStyle.SPACE(indentationWidth);
+            case tab -> IndentationStyle.TAB;
+        }, prefixAlignment.map(alignment -> switch (alignment) {
+            case left -> PrefixAlignment::LEFT;
+            case right -> PrefixAlignment::RIGHT;
+        }), discardUnusedPrefixes, sortPrefixes, checkDefaultNamespaces, firstPredicateInNewLine,
+                useRdfType, parallelRendering, compact);
+
+        if (lsp) {
+            return new LanguageServer(options, in, out).serve();
+        }
+
+        if (write && check) {
+            throw new ParameterException(spec.commandLine(),
+                    "--write and --check cannot be used together");
+        }
+
+        if (cache && !write && !check) {
+            throw new ParameterException(spec.commandLine(),
+                    "--cache can only be used together with --write or --check");
+        }
+
+        if (watch && changedSince.isPresent()) {
+            throw new ParameterException(spec.commandLine(),
+                    "--watch and --changed-since cannot be used together");
+        }
 
-        if (paths.stream().map(path -> {
+        var lineRange = range.map(this::parseLineRange);
+
+        if (lineRange.isPresent() && cache) {
+            throw new ParameterException(spec.commandLine(),
+                    "--range and --cache cannot be used together");
+        }
+
+        if (filesFrom.isPresent() && (stdin || changedSince.isPresent()
+                || !spec.commandLine().getParseResult().matchedPositionals().isEmpty())) {
+            throw new ParameterException(spec.commandLine(),
+                    "--files-from cannot be used together with files, --stdin or --changed-since");
+        }
+
+        var excludedMatcher = Optional.ofNullable(excludedPatterns).map(patterns -> {
+            var matcher = FileSystems.getDefault()
+                    .getPathMatcher("glob:{" + String.join(",", patterns) + "}");
+
+            return (PathMatcher) path -> matcher.matches(display(path));
+        });
+
+        if (stdin || paths.contains(STDIN_PATH)) {
+            if (write || watch) {
+                throw new ParameterException(spec.commandLine(), (write ? "--write" : "--watch")
+                        + " cannot be used with standard input");
+            }
+
+            if (paths.size() > 1 || stdin
+                    && !spec.commandLine().getParseResult().matchedPositionals().isEmpty()
+                    && !paths.equals(Set.of(STDIN_PATH))) {
+                throw new ParameterException(spec.commandLine(),
+                        "Standard input cannot be formatted together with files");
+            }
+
+            return formatStandardInput(options, excludedMatcher, lineRange);
+        }
+
+        SortedMap<Path, Long> files = new TreeMap<>();
+        var walker = new FileWalker(ignoreHidden, !noIgnore, excludedMatcher, watch);
+        List<Path> roots;
+
+        try {
+            roots = (filesFrom.isPresent() ? readFileList(filesFrom.get()) : paths).stream()
+                    .map(workingDirectory::resolve).map(Path::normalize).toList();
+        } catch (NoSuchFileException e) {
+            spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
+                    .errorText(display(filesFrom.get()) + ": No such file or directory"));
+
+            return spec.exitCodeOnExecutionException();
+        } catch (IOException e) {
+            spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
+                    .errorText(display(filesFrom.get()) + ": " + e.getMessage()));
+
+            return spec.exitCodeOnExecutionException();
+        }
+
+        if (roots.stream().map(path -> {
             try {
-                Files.walkFileTree(path.normalize(), new SimpleFileVisitor<>() {
-                    @Override
-                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
-                            throws IOException {
-                        if (ignoreHidden && Files.isHidden(dir) || excludedMatcher
-                                .map(matcher -> matcher.matches(dir)).orElse(false)) {
-                            return FileVisitResult.SKIP_SUBTREE;
-                        }
+                if (filesFrom.isPresent()) {
+                    var attrs = Files.readAttributes(path, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
 
-                        return super.preVisitDirectory(dir, attrs);
-                    };
+                    if (FileWalker.isFormattable(path, attrs)
+                            && !excludedMatcher.map(matcher -> matcher.matches(path)).orElse(false)) {
+                        files.put(path, attrs.size());
+                    }
+
+                    return false;
+                }
 
-                    @Override
-                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
-                            throws IOException {
-                        if (attrs.isRegularFile() && file.toString().endsWith(".ttl")
-                                && !(ignoreHidden && Files.isHidden(file)) && !excludedMatcher
-                                        .map(matcher -> matcher.matches(file)).orElse(false)) {
-                            files.add(file);
+                if (changedSince.isPresent()) {
+                    for (var file : GitChanges.since(path, changedSince.get())) {
+                        if (file.toString().endsWith(".ttl") && Files.isRegularFile(file)
+                                && !isSkipped(path, file, excludedMatcher)) {
+                            files.put(file, Files.size(file));
                         }
+                    }
+
+                    return false;
+                }
 
-                        return super.visitFile(file, attrs);
-                    };
-                });
+                walker.walk(path, files);
 
                 return false;
             } catch (NoSuchFileException e) {
                 spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
-                        .errorText(e.getFile() + ": No such file or directory"));
+                        .errorText(display(Path.of(e.getFile())) + ": No such file or directory"));
 
                 return true;
             } catch (Exception e) {
                 spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
-                        .errorText(path + ": " + e.getMessage()));
+                        .errorText(display(path) + ": " + e.getMessage()));
 
                 return true;
             }
@@ -151,91 +334,272 @@ public class Main implements Callable<Integer> {
             return spec.exitCodeOnExecutionException();
         }
 
-        if (files.stream().map(file -> {
+        if (lineRange.isPresent() && files.size() != 1) {
+            throw new ParameterException(spec.commandLine(),
+                    "--range can only be used with a single file");
+        }
+
+        FormattingTask task = lineRange.isPresent() ? rangeTask(lineRange.get())
+                : write ? (context, file, input, output) -> context.formatInPlace(file, input)
+                : check ? (context, file, input, output) -> {
+                    if (!context.isFormatted(file, input)) {
+                        throw new NotFormattedException();
+                    }
+                } : (context, file, input, output) -> {
+                    try (var in = input.isPresent() ? new ByteArrayInputStream(input.get())
+                            : Files.newInputStream(file)) {
+                        context.format(in, output);
+                    }
+                };
+
+        var formattingCache = cache
+                ? Optional.of(FormattingCache.load(workingDirectory.resolve(cacheLocation),
+                        fingerprint()))
+                : Optional.<FormattingCache>empty();
+
+        if (formattingCache.isPresent()) {
+            task = formattingCache.get().skipFormatted(task);
+        }
+
+        var exitCode = jobs > 1 ? formatInParallel(files, options, task, out)
+                : formatSequentially(files, new FormattingContext(options), task, out);
+
+        if (formattingCache.isPresent()) {
             try {
-                var in = Files.newInputStream(file);
-                var parser = new TurtleParser();
-                var model = new DynamicModel(new LinkedHashModelFactory());
-
-                parser.setRDFHandler(new StatementCollector(model));
-                parser.set(BasicParserSettings.NAMESPACES, Collections.emptySet());
-                parser.parse(in);
-
-                var writer = new TurtleWriter(System.out);
-                writer.set(BasicWriterSettings.INLINE_BLANK_NODES, true);
-
-                writer.setIndentationStyle(switch (indentationStyle) {
-                    case space -> IndentationStyle.SPACE(indentationWidth);
-                    case tab -> IndentationStyle.TAB;
-                });
-
-                var maxPrefixWidth = model.getNamespaces().stream().map(Namespace::getPrefix)
-                        .map(String::length).max(Integer::compare);
-
-                writer.setPrefixAlignment(
-                        prefixAlignment.flatMap(alignment -> maxPrefixWidth.map(switch (alignment) {
-                            case left -> PrefixAlignment::LEFT;
-                            case right -> PrefixAlignment::RIGHT;
-                        })));
-
-                if (discardUnusedPrefixes) {
-                    var namespaces = new LinkedHashSet<>(model.getNamespaces());
-
-                    for (var statement : model) {
-                        for (var component : List.of(statement.getSubject(),
-                                statement.getPredicate(), statement.getObject())) {
-                            if (component instanceof IRI iri) {
-                                namespaces.removeIf(namespace -> namespace.getName()
-                                        .equals(iri.getNamespace()));
+                formattingCache.get().save();
+            } catch (IOException e) {
+                spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
+                        .errorText(cacheLocation + ": " + e.getMessage()));
+
+                return spec.exitCodeOnExecutionException();
+            }
+        }
+
+        if (watch) {
+            return watch(roots, walker, new FormattingContext(options), task, formattingCache);
+        }
+
+        return exitCode;
+    }
+
+    private int watch(List<Path> roots, FileWalker walker, FormattingContext context,
+            FormattingTask task, Optional<FormattingCache> formattingCache) throws IOException {
+        try (var watchService = FileSystems.getDefault().newWatchService()) {
+            var directories = new HashMap<WatchKey, Path>();
+            var files = new HashMap<Path, Path>();
+
+            for (var root : roots) {
+                if (Files.isRegularFile(root)) {
+                    files.put(root.toAbsolutePath(), root);
+                    directories.put(register(root.toAbsolutePath().getParent(), watchService),
+                            root.toAbsolutePath().getParent());
+                }
+            }
+
+            while (true) {
+                for (var directory : walker.discoveredDirectories()) {
+                    directories.put(register(directory, watchService), directory);
+                }
+
+                var key = watchService.take();
+                SortedMap<Path, Long> touched = new TreeMap<>();
+
+                do {
+                    var directory = directories.get(key);
+
+                    for (var event : key.pollEvents()) {
+                        try {
+                            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                                for (var root : roots) {
+                                    walker.walk(root, touched);
+                                }
+                            } else if (directory != null) {
+                                var entry = directory.resolve((Path) event.context());
+                                var file = files.get(entry.toAbsolutePath());
+
+                                if (file != null) {
+                                    touched.put(file, Files.size(file));
+                                } else {
+                                    walker.update(directory, entry, touched);
+                                }
                             }
+                        } catch (NoSuchFileException e) {
+                            // The entry was deleted again before its event was handled.
+                            continue;
+                        } catch (IOException e) {
+                            spec.commandLine().getErr().println(spec.commandLine()
+                                    .getColorScheme().errorText(display(directory) + ": "
+                                            + e.getMessage()));
                         }
                     }
 
-                    for (var namespace : namespaces) {
-                        model.removeNamespace(namespace.getPrefix());
+                    if (!key.reset()) {
+                        directories.remove(key);
+                        walker.forget(directory);
                     }
-                }
+                } while ((key = watchService.poll(WATCH_DEBOUNCE_MILLIS,
+                        TimeUnit.MILLISECONDS)) != null);
 
-                var namespaces =
-                        sortPrefixes ? new TreeSet<>(model.getNamespaces()) : model.getNamespaces();
+                touched.keySet().removeIf(file -> !Files.exists(file, LinkOption.NOFOLLOW_LINKS));
 
-                if (checkDefaultNamespaces) {
-                    var defaultNamespaces = Namespaces.DEFAULT_RDF4J.stream()
-                            .collect(Collectors.toMap(Namespace::getPrefix, Namespace::getName));
+                if (touched.isEmpty()) {
+                    continue;
+                }
 
-                    for (var namespace : model.getNamespaces()) {
-                        var prefix = namespace.getPrefix();
-                        var name = namespace.getName();
-                        var expectedName = defaultNamespaces.get(prefix);
+                formatSequentially(touched, context, task, out);
 
-                        if (Optional.ofNullable(expectedName).map(iri -> !iri.equals(name))
-                                .orElse(false)) {
-                            throw new ModelException("Expected namespace prefix '" + prefix
-                                    + "' to be associated with '" + expectedName + "', found '"
-                                    + name + "'");
-                        }
+                if (formattingCache.isPresent()) {
+                    try {
+                        formattingCache.get().save();
+                    } catch (IOException e) {
+                        spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
+                                .errorText(cacheLocation + ": " + e.getMessage()));
                     }
                 }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            return spec.exitCodeOnExecutionException();
+        }
+    }
+
+    private static WatchKey register(Path directory, WatchService watchService)
+            throws IOException {
+        return directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    private List<Path> readFileList(Path list) throws IOException {
+        var content = new String(list.equals(STDIN_PATH) ? in.readAllBytes()
+                : Files.readAllBytes(workingDirectory.resolve(list)), StandardCharsets.UTF_8);
+        var separator = content.indexOf('\0') != -1 ? "\0" : "\r?\n";
+
+        return Arrays.stream(content.split(separator)).filter(name -> !name.isEmpty())
+                .map(Path::of).toList();
+    }
+
+    private LineRange parseLineRange(String value) {
+        var matcher = LINE_RANGE.matcher(value);
+
+        if (matcher.matches()) {
+            var lineRange = new LineRange(Integer.parseInt(matcher.group(1)),
+                    Integer.parseInt(matcher.group(2)));
+
+            if (lineRange.start() >= 1 && lineRange.start() <= lineRange.end()) {
+                return lineRange;
+            }
+        }
+
+        throw new ParameterException(spec.commandLine(),
+                "Invalid value for option '--range': expected <startLine>:<endLine>, found '"
+                        + value + "'");
+    }
+
+    private FormattingTask rangeTask(LineRange lineRange) {
+        if (write) {
+            return (context, file, input, output) -> context.formatRangeInPlace(file, input,
+                    lineRange.start(), lineRange.end());
+        }
+
+        return (context, file, input, output) -> {
+            var original = input.isPresent() ? input.get() : Files.readAllBytes(file);
+            var formatted = context.formatRange(original, lineRange.start(), lineRange.end());
+
+            if (check) {
+                if (!Arrays.equals(formatted, original)) {
+                    throw new NotFormattedException();
+                }
+            } else {
+                var buffer = ByteBuffer.wrap(formatted);
 
-                writer.setFirstPredicateInNewLine(firstPredicateInNewLine);
-                writer.setUseRdfType(useRdfType);
+                while (buffer.hasRemaining()) {
+                    output.write(buffer);
+                }
+            }
+        };
+    }
 
-                writer.startRDF();
+    private int formatStandardInput(FormattingContext.Options options,
+            Optional<PathMatcher> excludedMatcher, Optional<LineRange> lineRange) {
+        var file = stdinFilename.map(workingDirectory::resolve);
+        var name = file.map(this::display).orElse(STDIN_PATH);
 
-                for (var namespace : namespaces) {
-                    writer.handleNamespace(namespace.getPrefix(), namespace.getName());
+        try {
+            if (file.isPresent()
+                    && excludedMatcher.map(matcher -> matcher.matches(file.get())).orElse(false)) {
+                if (!check) {
+                    in.transferTo(Channels.newOutputStream(out));
                 }
 
-                for (var statement : model) {
-                    writer.handleStatement(statement);
+                return 0;
+            }
+
+            var context = new FormattingContext(options);
+
+            if (lineRange.isPresent()) {
+                rangeTask(lineRange.get()).run(context, name, Optional.of(in.readAllBytes()), out);
+            } else if (check) {
+                if (!context.isFormatted(name, Optional.of(in.readAllBytes()))) {
+                    throw new NotFormattedException();
                 }
+            } else {
+                context.format(in, out);
+            }
+
+            return 0;
+        } catch (Exception e) {
+            spec.commandLine().getErr().println(
+                    spec.commandLine().getColorScheme().errorText(name + ": " + e.getMessage()));
+
+            return spec.exitCodeOnExecutionException();
+        }
+    }
+
+    private Path display(Path path) {
+        return workingDirectory.isAbsolute() && path.startsWith(workingDirectory)
+                ? workingDirectory.relativize(path)
+                : path;
+    }
+
+    private boolean isSkipped(Path root, Path file, Optional<PathMatcher> excludedMatcher)
+            throws IOException {
+        for (var path = file; path != null; path = path.getParent()) {
+            var current = path;
+
+            if (ignoreHidden && Files.isHidden(current)
+                    || excludedMatcher.map(matcher -> matcher.matches(current)).orElse(false)) {
+                return true;
+            }
+
+            if (current.equals(root)) {
+                break;
+            }
+        }
+
+        return false;
+    }
+
+    private String fingerprint() {
+        return String.join(" ", "version=" + getClass().getPackage().getImplementationVersion(),
+                "indentStyle=" + indentationStyle, "indentWidth=" + indentationWidth,
+                "alignPrefixes=" + prefixAlignment.map(Enum::name).orElse(""),
+                "discardUnusedPrefixes=" + discardUnusedPrefixes, "sortPrefixes=" + sortPrefixes,
+                "checkDefaultNamespaces=" + checkDefaultNamespaces,
+                "firstPredicateInNewLine=" + firstPredicateInNewLine, "useRdfType=" + useRdfType,
+                "compact=" + compact);
+    }
 
-                writer.endRDF();
+    private int formatSequentially(SortedMap<Path, Long> files, FormattingContext context,
+            FormattingTask task, WritableByteChannel out) {
+        if (files.keySet().stream().map(file -> {
+            try {
+                task.run(context, file, Optional.empty(), out);
 
                 return false;
             } catch (Exception e) {
                 spec.commandLine().getErr().println(spec.commandLine().getColorScheme()
-                        .errorText(file + ": " + e.getMessage()));
+                        .errorText(display(file) + ": " + e.getMessage()));
 
                 return true;
             }
@@ -246,9 +610,37 @@ public class Main implements Callable<Integer> {
         return 0;
     }
 
+    private int formatInParallel(SortedMap<Path, Long> files, FormattingContext.Options options,
+            FormattingTask task, WritableByteChannel out) {
+        try (var pipeline = new FormattingPipeline(options, task, jobs)) {
+            if (!pipeline.run(files, out,
+                    (file, e) -> spec.commandLine().getErr().println(spec.commandLine()
+                            .getColorScheme().errorText(display(file) + ": " + e.getMessage())))) {
+                return spec.exitCodeOnExecutionException();
+            }
+
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            return spec.exitCodeOnExecutionException();
+        }
+    }
+
     public static void main(String[] args) {
-        System.exit(new CommandLine(new Main())
-                .setExecutionExceptionHandler(new PrintExceptionMessageHandler()).execute(args));
+        if (Arrays.asList(args).contains("--client")) {
+            System.exit(DaemonClient.run(args));
+        }
+
+        System.exit(execute(args));
+    }
+
+    static int execute(String[] args) {
+        return new CommandLine(new Main())
+                .setExecutionExceptionHandler(new PrintExceptionMessageHandler()).execute(args);
+    }
+
+    private record LineRange(int start, int end) {
     }
 
     static class ManifestVersionProvider implements IVersionProvider {
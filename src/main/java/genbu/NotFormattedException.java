@@ -0,0 +1,9 @@
+package genbu;
+
+public class NotFormattedException extends Exception {
+    private static final long serialVersionUID = -4215032567480310157L;
+
+    public NotFormattedException() {
+        super("File is not formatted");
+    }
+}
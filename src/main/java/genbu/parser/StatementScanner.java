@@ -0,0 +1,236 @@
+package genbu.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public final class StatementScanner {
+    public record Statement(int start, int end, int startLine, int endLine, boolean directive,
+            boolean blankNodeLabels) {
+        public Statement shift(int offset, int lines) {
+            return new Statement(start + offset, end + offset, startLine + lines, endLine + lines,
+                    directive, blankNodeLabels);
+        }
+    }
+
+    private final CharSequence input;
+    private int position;
+    private int line;
+
+    public StatementScanner(CharSequence input, int position, int line) {
+        this.input = input;
+        this.position = position;
+        this.line = line;
+    }
+
+    public static List<Statement> scan(byte[] input) {
+        var scanner = new StatementScanner(new Bytes(input), 0, 1);
+        var statements = new ArrayList<Statement>();
+
+        for (var statement = scanner.next(); statement.isPresent(); statement = scanner.next()) {
+            statements.add(statement.get());
+        }
+
+        return statements;
+    }
+
+    public Optional<Statement> next() {
+        if (!skipWhitespaceAndComments()) {
+            return Optional.empty();
+        }
+
+        int start = position;
+        int startLine = line;
+
+        if (input.charAt(position) == '@') {
+            return Optional.of(statement(start, startLine, true, scanUntilTerminator()));
+        } else if (startsWithKeyword("PREFIX") || startsWithKeyword("BASE")) {
+            while (position < input.length() && input.charAt(position) != '<') {
+                advance();
+            }
+
+            scanIRI();
+
+            return Optional.of(statement(start, startLine, true, false));
+        } else {
+            return Optional.of(statement(start, startLine, false, scanUntilTerminator()));
+        }
+    }
+
+    private Statement statement(int start, int startLine, boolean directive,
+            boolean blankNodeLabels) {
+        int endLine = line - (position > start && input.charAt(position - 1) == '\n' ? 1 : 0);
+
+        return new Statement(start, position, startLine, endLine, directive, blankNodeLabels);
+    }
+
+    private boolean scanUntilTerminator() {
+        boolean blankNodeLabels = false;
+        int depth = 0;
+
+        while (position < input.length()) {
+            char c = input.charAt(position);
+
+            if (c == '"' || c == '\'') {
+                scanString(c);
+            } else if (c == '<') {
+                if (position + 1 < input.length() && input.charAt(position + 1) == '<') {
+                    depth++;
+                    advance();
+                    advance();
+                } else {
+                    scanIRI();
+                }
+            } else if (c == '>' && position + 1 < input.length()
+                    && input.charAt(position + 1) == '>') {
+                depth--;
+                advance();
+                advance();
+            } else if (c == '#') {
+                skipComment();
+            } else if (c == '[' || c == '(') {
+                depth++;
+                advance();
+            } else if (c == ']' || c == ')') {
+                depth--;
+                advance();
+            } else if (c == '_' && position + 1 < input.length()
+                    && input.charAt(position + 1) == ':'
+                    && (position == 0 || !isNameChar(input.charAt(position - 1)))) {
+                blankNodeLabels = true;
+                advance();
+            } else if (c == '.' && depth <= 0 && isTerminator()) {
+                advance();
+
+                return blankNodeLabels;
+            } else {
+                advance();
+            }
+        }
+
+        return blankNodeLabels;
+    }
+
+    private boolean isTerminator() {
+        return position == 0 || !isNameChar(input.charAt(position - 1))
+                || position + 1 == input.length() || !isNameChar(input.charAt(position + 1));
+    }
+
+    private void scanString(char quote) {
+        boolean longString = position + 2 < input.length() && input.charAt(position + 1) == quote
+                && input.charAt(position + 2) == quote;
+
+        advance();
+
+        if (longString) {
+            advance();
+            advance();
+        }
+
+        while (position < input.length()) {
+            char c = input.charAt(position);
+
+            if (c == '\\') {
+                advance();
+                advance();
+            } else if (c == quote && (!longString || position + 2 < input.length()
+                    && input.charAt(position + 1) == quote
+                    && input.charAt(position + 2) == quote)) {
+                advance();
+
+                if (longString) {
+                    advance();
+                    advance();
+                }
+
+                return;
+            } else if (!longString && (c == '\n' || c == '\r')) {
+                return;
+            } else {
+                advance();
+            }
+        }
+    }
+
+    private void scanIRI() {
+        while (position < input.length() && input.charAt(position) != '>'
+                && input.charAt(position) != '\n') {
+            advance();
+        }
+
+        if (position < input.length() && input.charAt(position) == '>') {
+            advance();
+        }
+    }
+
+    private void skipComment() {
+        while (position < input.length() && input.charAt(position) != '\n') {
+            advance();
+        }
+    }
+
+    private boolean skipWhitespaceAndComments() {
+        while (position < input.length()) {
+            char c = input.charAt(position);
+
+            if (c == '#') {
+                skipComment();
+            } else if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                advance();
+            } else {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean startsWithKeyword(String keyword) {
+        int end = position + keyword.length();
+
+        if (end >= input.length()
+                || !isWhitespace(input.charAt(end)) && input.charAt(end) != '<') {
+            return false;
+        }
+
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toUpperCase(input.charAt(position + i)) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void advance() {
+        if (position < input.length() && input.charAt(position++) == '\n') {
+            line++;
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static boolean isNameChar(char c) {
+        return c >= 0x80 || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                || c == '_' || c == '-' || c == ':' || c == '%' || c == '\\';
+    }
+
+    private record Bytes(byte[] bytes) implements CharSequence {
+        @Override
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[index] & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
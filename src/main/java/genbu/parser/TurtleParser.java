@@ -46,6 +46,8 @@ public class TurtleParser extends AbstractRDFParser {
 
 	private Statement previousStatement;
 
+	private Thread owner;
+
 	public TurtleParser() {
 		super();
 	}
@@ -67,8 +69,12 @@ public class TurtleParser extends AbstractRDFParser {
 		return result;
 	}
 
+	public void setSingleThreaded(boolean singleThreaded) {
+		owner = singleThreaded ? Thread.currentThread() : null;
+	}
+
 	@Override
-	public synchronized void parse(InputStream in, String baseURI)
+	public void parse(InputStream in, String baseURI)
 			throws IOException, RDFParseException, RDFHandlerException {
 		if (in == null) {
 			throw new IllegalArgumentException("Input stream must not be 'null'");
@@ -83,7 +89,21 @@ public class TurtleParser extends AbstractRDFParser {
 	}
 
 	@Override
-	public synchronized void parse(Reader reader, String baseURI)
+	public void parse(Reader reader, String baseURI)
+			throws IOException, RDFParseException, RDFHandlerException {
+		assert owner == null || owner == Thread.currentThread()
+				: "Single-threaded parser used from " + Thread.currentThread();
+
+		if (owner != null) {
+			parseDocument(reader, baseURI);
+		} else {
+			synchronized (this) {
+				parseDocument(reader, baseURI);
+			}
+		}
+	}
+
+	private void parseDocument(Reader reader, String baseURI)
 			throws IOException, RDFParseException, RDFHandlerException {
 		clear();
 
@@ -0,0 +1,247 @@
+package genbu.writer;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+public class IndentingWriter extends Writer {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final int BUFFER_SIZE = 1 << 18;
+
+    private final Writer out;
+    private WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    private String indentationString = "\t";
+    private int indentationLevel;
+    private boolean indentationWritten;
+    private int charactersSinceEOL;
+    private char highSurrogate;
+
+    public IndentingWriter(Writer out) {
+        this.out = out;
+        this.channel = null;
+        this.buffer = null;
+    }
+
+    public IndentingWriter(OutputStream out) {
+        this(out instanceof FileOutputStream file ? file.getChannel() : Channels.newChannel(out));
+    }
+
+    public IndentingWriter(WritableByteChannel channel) {
+        this.out = null;
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    public void reset(WritableByteChannel channel) {
+        this.channel = channel;
+
+        buffer.clear();
+        indentationLevel = 0;
+        indentationWritten = false;
+        charactersSinceEOL = 0;
+        highSurrogate = 0;
+    }
+
+    public void setIndentationString(String indentationString) {
+        this.indentationString = indentationString;
+    }
+
+    public String getIndentationString() {
+        return indentationString;
+    }
+
+    public int getIndentationLevel() {
+        return indentationLevel;
+    }
+
+    public void setIndentationLevel(int indentationLevel) {
+        this.indentationLevel = indentationLevel;
+    }
+
+    public int getCharactersSinceEOL() {
+        return charactersSinceEOL;
+    }
+
+    public void increaseIndentation() {
+        indentationLevel++;
+    }
+
+    public void decreaseIndentation() {
+        indentationLevel--;
+    }
+
+    public void writeEOL() throws IOException {
+        write(LINE_SEPARATOR);
+        indentationWritten = false;
+        charactersSinceEOL = 0;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        writeIndentation();
+        charactersSinceEOL++;
+
+        if (out != null) {
+            out.write(c);
+        } else {
+            encode((char) c);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        writeIndentation();
+        charactersSinceEOL += len;
+
+        if (out != null) {
+            out.write(str, off, len);
+        } else {
+            encode(str, off, off + len);
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        writeIndentation();
+        charactersSinceEOL += len;
+
+        if (out != null) {
+            out.write(cbuf, off, len);
+        } else {
+            encode(cbuf, off, off + len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        } else {
+            drain();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+
+        if (out != null) {
+            out.close();
+        } else {
+            channel.close();
+        }
+    }
+
+    private void writeIndentation() throws IOException {
+        if (!indentationWritten) {
+            for (int i = 0; i < indentationLevel; i++) {
+                if (out != null) {
+                    out.write(indentationString);
+                } else {
+                    encode(indentationString, 0, indentationString.length());
+                }
+            }
+
+            indentationWritten = true;
+        }
+    }
+
+    private void encode(String str, int start, int end) throws IOException {
+        int i = start;
+
+        while (i < end) {
+            if (buffer.remaining() < 4) {
+                drain();
+            }
+
+            int asciiEnd = Math.min(end, i + buffer.remaining() - 3);
+
+            if (highSurrogate == 0) {
+                for (char c; i < asciiEnd && (c = str.charAt(i)) < 0x80; i++) {
+                    buffer.put((byte) c);
+                }
+            }
+
+            if (i < asciiEnd) {
+                encode(str.charAt(i++));
+            }
+        }
+    }
+
+    private void encode(char[] cbuf, int start, int end) throws IOException {
+        int i = start;
+
+        while (i < end) {
+            if (buffer.remaining() < 4) {
+                drain();
+            }
+
+            int asciiEnd = Math.min(end, i + buffer.remaining() - 3);
+
+            if (highSurrogate == 0) {
+                for (char c; i < asciiEnd && (c = cbuf[i]) < 0x80; i++) {
+                    buffer.put((byte) c);
+                }
+            }
+
+            if (i < asciiEnd) {
+                encode(cbuf[i++]);
+            }
+        }
+    }
+
+    private void encode(char c) throws IOException {
+        if (buffer.remaining() < 4) {
+            drain();
+        }
+
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+
+                return;
+            }
+
+            buffer.put((byte) '?');
+            encode(c);
+        } else if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | c >> 6));
+            buffer.put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | c >> 12));
+            buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | c & 0x3F));
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
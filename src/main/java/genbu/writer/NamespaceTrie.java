@@ -0,0 +1,98 @@
+package genbu.writer;
+
+import java.util.Arrays;
+import org.eclipse.rdf4j.rio.turtle.TurtleUtil;
+
+final class NamespaceTrie {
+    private final Node root = new Node(0);
+
+    void put(String namespace, String prefix) {
+        Node node = root;
+
+        for (int i = 0; i < namespace.length(); i++) {
+            node = node.child(namespace.charAt(i), true);
+        }
+
+        if (node.prefix == null) {
+            node.prefix = prefix;
+        }
+    }
+
+    Node longestMatch(String iri) {
+        int end = iri.length();
+
+        if (end == 0 || !TurtleUtil.isNameEndChar(iri.codePointBefore(end))) {
+            return null;
+        }
+
+        int localNameStart = end;
+
+        while (localNameStart > 0 && TurtleUtil.isNameChar(iri.codePointBefore(localNameStart))) {
+            localNameStart -= Character.charCount(iri.codePointBefore(localNameStart));
+        }
+
+        Node match = null;
+        Node node = root;
+
+        for (int i = 0; i < end && node != null; i++) {
+            node = node.child(iri.charAt(i), false);
+
+            if (node != null && node.prefix != null && i + 1 >= localNameStart
+                    && i + 1 < end && !Character.isLowSurrogate(iri.charAt(i + 1))
+                    && TurtleUtil.isNameStartChar(iri.codePointAt(i + 1))) {
+                match = node;
+            }
+        }
+
+        return match;
+    }
+
+    static final class Node {
+        private final int length;
+        private String prefix;
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+
+        private Node(int length) {
+            this.length = length;
+        }
+
+        String prefix() {
+            return prefix;
+        }
+
+        int length() {
+            return length;
+        }
+
+        private Node child(char label, boolean create) {
+            int index = Arrays.binarySearch(labels, 0, size, label);
+
+            if (index >= 0) {
+                return children[index];
+            }
+
+            if (!create) {
+                return null;
+            }
+
+            index = -index - 1;
+
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(2, size * 2));
+                children = Arrays.copyOf(children, labels.length);
+            }
+
+            System.arraycopy(labels, index, labels, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+
+            Node child = new Node(length + 1);
+            labels[index] = label;
+            children[index] = child;
+            size++;
+
+            return child;
+        }
+    }
+}
@@ -1,23 +1,27 @@
 package genbu.writer;
 
-import java.io.BufferedWriter;
+import java.io.CharArrayWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 import org.eclipse.rdf4j.common.io.CharSink;
-import org.eclipse.rdf4j.common.io.IndentingWriter;
 import org.eclipse.rdf4j.common.net.ParsedIRI;
+import org.eclipse.rdf4j.common.text.ASCIIUtil;
 import org.eclipse.rdf4j.common.text.StringUtil;
 import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.IRI;
@@ -51,6 +55,12 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
 
     private static final long DEFAULT_BUFFER_SIZE = 1000l;
 
+    private static final int MIN_BLOCKS_PER_TASK = 64;
+
+    private static final String PADDING = " ".repeat(LINE_WRAP);
+
+    private static final String IRI_DONT_ESCAPE = "_~.-!$&'()*+,;=:/?#@%[]";
+
     private static final IRI FIRST = new SimpleIRI(RDF.FIRST.stringValue()) {
         private static final long serialVersionUID = -7951518099940758898L;
     };
@@ -62,6 +72,8 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
     private long bufferSize = DEFAULT_BUFFER_SIZE;
     protected Model bufferedStatements;
     private final Object bufferLock = new Object();
+    private Thread owner;
+    private Map<BNode, String> blankNodeLabels;
 
     protected ParsedIRI baseIRI;
     protected IndentingWriter writer;
@@ -70,6 +82,10 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
     protected Resource lastWrittenSubject;
     protected IRI lastWrittenPredicate;
 
+    private NamespaceTrie namespaceTrie = new NamespaceTrie();
+    private final Map<String, String> prefixTable = new HashMap<>();
+    private final Map<String, Integer> prefixCounters = new HashMap<>();
+
     private final Deque<Resource> stack = new ArrayDeque<>();
     private final Deque<IRI> path = new ArrayDeque<>();
 
@@ -84,6 +100,8 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
     private Optional<PrefixAlignment> prefixAlignment = Optional.empty();
     private boolean firstPredicateInNewLine;
     private boolean useRdfType;
+    private boolean parallelRendering;
+    private boolean namespaceDeclarations = true;
 
     public TurtleWriter(OutputStream out) {
         this(out, null);
@@ -91,8 +109,25 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
 
     public TurtleWriter(OutputStream out, ParsedIRI baseIRI) {
         this.baseIRI = baseIRI;
-        this.writer = new IndentingWriter(
-                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        this.writer = new IndentingWriter(out);
+    }
+
+    public TurtleWriter(WritableByteChannel channel) {
+        this(channel, null);
+    }
+
+    public TurtleWriter(WritableByteChannel channel, ParsedIRI baseIRI) {
+        this.baseIRI = baseIRI;
+        this.writer = new IndentingWriter(channel);
+    }
+
+    public TurtleWriter(IndentingWriter writer) {
+        this(writer, null);
+    }
+
+    public TurtleWriter(IndentingWriter writer, ParsedIRI baseIRI) {
+        this.baseIRI = baseIRI;
+        this.writer = writer;
     }
 
     public TurtleWriter(Writer writer) {
@@ -142,6 +177,22 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
         this.useRdfType = useRdfType;
     }
 
+    public void setParallelRendering(boolean parallelRendering) {
+        this.parallelRendering = parallelRendering;
+    }
+
+    public void setShortBlankNodeLabels(boolean shortBlankNodeLabels) {
+        this.blankNodeLabels = shortBlankNodeLabels ? new HashMap<>() : null;
+    }
+
+    public void setSingleThreaded(boolean singleThreaded) {
+        this.owner = singleThreaded ? Thread.currentThread() : null;
+    }
+
+    public void setNamespaceDeclarations(boolean namespaceDeclarations) {
+        this.namespaceDeclarations = namespaceDeclarations;
+    }
+
     @Override
     public void startRDF() throws RDFHandlerException {
         super.startRDF();
@@ -168,14 +219,16 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
                 writeBase(baseIRI.toString());
             }
 
-            for (Map.Entry<String, String> entry : namespaceTable.entrySet()) {
-                String name = entry.getKey();
-                String prefix = entry.getValue();
+            if (namespaceDeclarations) {
+                for (Map.Entry<String, String> entry : namespaceTable.entrySet()) {
+                    String name = entry.getKey();
+                    String prefix = entry.getValue();
 
-                writeNamespace(prefix, name);
+                    writeNamespace(prefix, name);
+                }
             }
 
-            if (!namespaceTable.isEmpty()) {
+            if (namespaceDeclarations && !namespaceTable.isEmpty()) {
                 writer.writeEOL();
             }
         } catch (IOException e) {
@@ -187,8 +240,12 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
     public void endRDF() throws RDFHandlerException {
         checkWritingStarted();
 
-        synchronized (bufferLock) {
+        if (isOwned()) {
             processBuffer();
+        } else {
+            synchronized (bufferLock) {
+                processBuffer();
+            }
         }
 
         try {
@@ -207,31 +264,81 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
             if (!namespaceTable.containsKey(name)) {
                 boolean isLegalPrefix = prefix.isEmpty() || TurtleUtil.isPN_PREFIX(prefix);
 
-                if (!isLegalPrefix || namespaceTable.containsValue(prefix)) {
+                if (!isLegalPrefix || prefixTable.containsKey(prefix)) {
                     if (prefix.isEmpty() || !isLegalPrefix) {
                         prefix = "ns";
                     }
 
-                    int number = 1;
+                    int number = prefixCounters.getOrDefault(prefix, 1);
 
-                    while (namespaceTable.containsValue(prefix + number)) {
+                    while (prefixTable.containsKey(prefix + number)) {
                         number++;
                     }
 
+                    prefixCounters.put(prefix, number + 1);
                     prefix += number;
                 }
 
                 namespaceTable.put(name, prefix);
+                prefixTable.put(prefix, name);
+                namespaceTrie.put(name, prefix);
 
-                closePreviousStatement();
+                if (namespaceDeclarations) {
+                    closePreviousStatement();
 
-                writeNamespace(prefix, name);
+                    writeNamespace(prefix, name);
+                }
             }
         } catch (IOException e) {
             throw new RDFHandlerException(e);
         }
     }
 
+    public Set<String> usedPrefixes(Map<String, String> namespaces, Iterable<Statement> statements) {
+        NamespaceTrie trie = new NamespaceTrie();
+        Set<String> used = new HashSet<>();
+
+        namespaces.forEach((prefix, name) -> trie.put(name, prefix));
+
+        for (Statement st : statements) {
+            addUsedPrefixes(trie, st.getSubject(), used);
+
+            if (!st.getPredicate().equals(RDF.TYPE)) {
+                addUsedPrefixes(trie, st.getPredicate(), used);
+            } else if (useRdfType) {
+                used.add("rdf");
+            }
+
+            addUsedPrefixes(trie, st.getObject(), used);
+        }
+
+        return used;
+    }
+
+    private void addUsedPrefixes(NamespaceTrie trie, Value value, Set<String> used) {
+        if (value instanceof IRI) {
+            NamespaceTrie.Node namespace = trie.longestMatch(value.stringValue());
+
+            if (namespace != null) {
+                used.add(namespace.prefix());
+            }
+        } else if (value instanceof Literal) {
+            Literal lit = (Literal) value;
+
+            if (!Literals.isLanguageLiteral(lit)
+                    && (!abbreviateNumbers || abbreviateNumber(lit) == null)
+                    && (!xsdStringToPlainLiteral || !XSD.STRING.equals(lit.getDatatype()))) {
+                addUsedPrefixes(trie, lit.getDatatype(), used);
+            }
+        } else if (value instanceof Triple) {
+            Triple triple = (Triple) value;
+
+            addUsedPrefixes(trie, triple.getSubject(), used);
+            addUsedPrefixes(trie, triple.getPredicate(), used);
+            addUsedPrefixes(trie, triple.getObject(), used);
+        }
+    }
+
     public void setModelFactory(ModelFactory modelFactory) {
         this.modelFactory = Objects.requireNonNull(modelFactory);
     }
@@ -243,11 +350,11 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
     @Override
     protected void consumeStatement(Statement st) throws RDFHandlerException {
         if (isBuffering()) {
-            synchronized (bufferLock) {
-                bufferedStatements.add(st);
-
-                if (bufferedStatements.size() >= this.bufferSize) {
-                    processBuffer();
+            if (isOwned()) {
+                bufferStatement(st);
+            } else {
+                synchronized (bufferLock) {
+                    bufferStatement(st);
                 }
             }
         } else {
@@ -255,6 +362,62 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
         }
     }
 
+    private void bufferStatement(Statement st) {
+        bufferedStatements.add(st);
+
+        if (bufferedStatements.size() >= this.bufferSize) {
+            processBuffer();
+        }
+    }
+
+    public void consumeModel(Model model) throws RDFHandlerException {
+        checkWritingStarted();
+
+        if (isOwned() ? adoptModel(model) : adoptModelLocked(model)) {
+            return;
+        }
+
+        for (Statement st : model) {
+            handleStatement(st);
+        }
+    }
+
+    private boolean adoptModelLocked(Model model) {
+        synchronized (bufferLock) {
+            return adoptModel(model);
+        }
+    }
+
+    private boolean adoptModel(Model model) {
+        if (!isBuffering() || !bufferedStatements.isEmpty() || model.size() >= bufferSize
+                || requiresConversion(model)) {
+            return false;
+        }
+
+        bufferedStatements = model;
+
+        return true;
+    }
+
+    private boolean requiresConversion(Model model) {
+        if (getWriterConfig().get(BasicWriterSettings.CONVERT_RDF_STAR_TO_REIFICATION)) {
+            return true;
+        }
+
+        if (getRDFFormat().supportsRDFStar()
+                || !getWriterConfig().get(BasicWriterSettings.ENCODE_RDF_STAR)) {
+            return false;
+        }
+
+        for (Statement st : model) {
+            if (st.getSubject().isTriple() || st.getObject().isTriple()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     protected void handleStatementInternal(Statement st, boolean endRDFCalled,
             boolean canShortenSubjectBNode, boolean canShortenObjectBNode) {
         Resource subj = st.getSubject();
@@ -400,14 +563,26 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
         writer.write("@prefix ");
 
         if (prefixAlignment.orElse(null) instanceof PrefixAlignment prefixAlignment) {
-            writer.write(String.format(
-                    "%" + prefixAlignment + (prefixAlignment.width() + 1) + "s <", prefix + ":"));
+            int padding = prefixAlignment.width() - prefix.length();
+
+            if (prefixAlignment instanceof PrefixAlignment.RIGHT) {
+                writePadding(padding);
+            }
+
+            writer.write(prefix);
+            writer.write(':');
+
+            if (prefixAlignment instanceof PrefixAlignment.LEFT) {
+                writePadding(padding);
+            }
+
+            writer.write(" <");
         } else {
             writer.write(prefix);
             writer.write(": <");
         }
 
-        StringUtil.simpleEscapeIRI(name, writer, false);
+        writeEscapedIRI(name, 0, name.length());
         writer.write("> .");
         writer.writeEOL();
     }
@@ -452,40 +627,55 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
     }
 
     protected void writeURI(IRI uri) throws IOException {
-        String prefix = null;
+        String uriString = uri.stringValue();
+        NamespaceTrie.Node namespace = namespaceTrie.longestMatch(uriString);
+
+        if (namespace != null) {
+            writer.write(namespace.prefix());
+            writer.write(':');
+            writer.write(uriString, namespace.length(), uriString.length() - namespace.length());
+        } else if (baseIRI != null) {
+            String relativeURI = baseIRI.relativize(uriString);
+
+            writer.write('<');
+            writeEscapedIRI(relativeURI, 0, relativeURI.length());
+            writer.write('>');
+        } else {
+            writer.write('<');
+            writeEscapedIRI(uriString, 0, uriString.length());
+            writer.write('>');
+        }
+    }
 
-        if (TurtleUtil.isValidPrefixedName(uri.getLocalName())) {
-            prefix = namespaceTable.get(uri.getNamespace());
+    private void writeEscapedIRI(String iri, int start, int end) throws IOException {
+        int copyFrom = start;
 
-            if (prefix != null) {
-                writer.write(prefix);
-                writer.write(":");
-                writer.write(uri.getLocalName());
+        for (int i = start; i < end; i++) {
+            char c = iri.charAt(i);
 
-                return;
+            if (c < 160 && !ASCIIUtil.isLetterOrNumber(c) && IRI_DONT_ESCAPE.indexOf(c) == -1) {
+                writer.write(iri, copyFrom, i - copyFrom);
+                StringUtil.simpleEscapeIRI(String.valueOf(c), writer, false);
+                copyFrom = i + 1;
             }
         }
 
-        String uriString = uri.toString();
-        int splitIdx = TurtleUtil.findURISplitIndex(uriString);
+        writer.write(iri, copyFrom, end - copyFrom);
+    }
+
+    private void writePadding(int width) throws IOException {
+        while (width > 0) {
+            int length = Math.min(width, PADDING.length());
 
-        if (splitIdx > 0) {
-            String namespace = uriString.substring(0, splitIdx);
-            prefix = namespaceTable.get(namespace);
+            writer.write(PADDING, 0, length);
+            width -= length;
         }
+    }
 
-        if (prefix != null) {
-            writer.write(prefix);
-            writer.write(":");
-            writer.write(uriString.substring(splitIdx));
-        } else if (baseIRI != null) {
-            writer.write("<");
-            StringUtil.simpleEscapeIRI(baseIRI.relativize(uriString), writer, false);
-            writer.write(">");
-        } else {
-            writer.write("<");
-            StringUtil.simpleEscapeIRI(uriString, writer, false);
-            writer.write(">");
+    private String blankNodeLabel(BNode bNode) {
+        synchronized (blankNodeLabels) {
+            return blankNodeLabels.computeIfAbsent(bNode,
+                    node -> "b" + (blankNodeLabels.size() + 1));
         }
     }
 
@@ -502,6 +692,13 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
         }
 
         writer.write("_:");
+
+        if (blankNodeLabels != null) {
+            writer.write(blankNodeLabel(bNode));
+
+            return;
+        }
+
         String id = bNode.getID();
 
         if (id.isEmpty()) {
@@ -563,36 +760,28 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
         String label = lit.getLabel();
         IRI datatype = lit.getDatatype();
 
-        if (prettyPrint && abbreviateNumbers) {
-            if (XSD.INTEGER.equals(datatype) || XSD.DECIMAL.equals(datatype)
-                    || XSD.DOUBLE.equals(datatype) || XSD.BOOLEAN.equals(datatype)) {
-                try {
-                    String normalized = XMLDatatypeUtil.normalize(label, datatype);
+        if (abbreviateNumbers) {
+            String abbreviated = abbreviateNumber(lit);
 
-                    if (!XMLDatatypeUtil.POSITIVE_INFINITY.equals(normalized)
-                            && !XMLDatatypeUtil.NEGATIVE_INFINITY.equals(normalized)
-                            && !XMLDatatypeUtil.NaN.equals(normalized)) {
-                        writer.write(normalized);
+            if (abbreviated != null) {
+                writer.write(abbreviated);
 
-                        return;
-                    }
-                } catch (IllegalArgumentException e) {
-                }
+                return;
             }
         }
 
         if (label.indexOf('\n') != -1 || label.indexOf('\r') != -1 || label.indexOf('\t') != -1) {
             writer.write("\"\"\"");
-            writer.write(TurtleUtil.encodeLongString(label));
+            writeEscapedString(label, true);
             writer.write("\"\"\"");
         } else {
-            writer.write("\"");
-            writer.write(TurtleUtil.encodeString(label));
-            writer.write("\"");
+            writer.write('"');
+            writeEscapedString(label, false);
+            writer.write('"');
         }
 
         if (Literals.isLanguageLiteral(lit)) {
-            writer.write("@");
+            writer.write('@');
             writer.write(lit.getLanguage().get());
         } else if (!xsdStringToPlainLiteral || !XSD.STRING.equals(datatype)) {
             writer.write("^^");
@@ -600,6 +789,50 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
         }
     }
 
+    private static String abbreviateNumber(Literal lit) {
+        IRI datatype = lit.getDatatype();
+
+        if (XSD.INTEGER.equals(datatype) || XSD.DECIMAL.equals(datatype)
+                || XSD.DOUBLE.equals(datatype) || XSD.BOOLEAN.equals(datatype)) {
+            try {
+                String normalized = XMLDatatypeUtil.normalize(lit.getLabel(), datatype);
+
+                if (!XMLDatatypeUtil.POSITIVE_INFINITY.equals(normalized)
+                        && !XMLDatatypeUtil.NEGATIVE_INFINITY.equals(normalized)
+                        && !XMLDatatypeUtil.NaN.equals(normalized)) {
+                    return normalized;
+                }
+            } catch (IllegalArgumentException e) {
+            }
+        }
+
+        return null;
+    }
+
+    private void writeEscapedString(String label, boolean longString) throws IOException {
+        int length = label.length();
+        int copyFrom = 0;
+
+        for (int i = 0; i < length; i++) {
+            String escape = switch (label.charAt(i)) {
+                case '\\' -> "\\\\";
+                case '"' -> "\\\"";
+                case '\t' -> longString ? null : "\\t";
+                case '\n' -> longString ? null : "\\n";
+                case '\r' -> longString ? null : "\\r";
+                default -> null;
+            };
+
+            if (escape != null) {
+                writer.write(label, copyFrom, i - copyFrom);
+                writer.write(escape);
+                copyFrom = i + 1;
+            }
+        }
+
+        writer.write(label, copyFrom, length - copyFrom);
+    }
+
     protected void closePreviousStatement() throws IOException {
         closeNestedResources(null);
 
@@ -748,26 +981,130 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
 
         if (this.getRDFFormat().supportsContexts()) {
             for (Resource context : bufferedStatements.contexts()) {
-                Model contextData = bufferedStatements.filter(null, null, null, context);
-                Set<Resource> processedSubjects = new HashSet<>();
-                Optional<Resource> nextSubject = nextSubject(contextData, processedSubjects);
+                processSubjects(bufferedStatements.filter(null, null, null, context));
+            }
+        } else {
+            processSubjects(bufferedStatements);
+        }
 
-                while (nextSubject.isPresent()) {
-                    processSubject(contextData, nextSubject.get(), processedSubjects);
-                    nextSubject = nextSubject(contextData, processedSubjects);
+        bufferedStatements.clear();
+    }
+
+    private void processSubjects(Model contextData) {
+        if (blankNodeLabels != null && inlineBNodes) {
+            for (Statement st : contextData) {
+                if (st.getObject() instanceof BNode object && !canInlineValue(contextData, object)) {
+                    blankNodeLabel(object);
                 }
             }
-        } else {
-            Set<Resource> processedSubjects = new HashSet<>();
-            Optional<Resource> nextSubject = nextSubject(bufferedStatements, processedSubjects);
+        }
 
-            while (nextSubject.isPresent()) {
-                processSubject(bufferedStatements, nextSubject.get(), processedSubjects);
-                nextSubject = nextSubject(bufferedStatements, processedSubjects);
+        if (parallelRendering && inlineBNodes) {
+            processSubjectsInParallel(contextData);
+
+            return;
+        }
+
+        Set<Resource> processedSubjects = new HashSet<>();
+        Optional<Resource> nextSubject = nextSubject(contextData, processedSubjects);
+
+        while (nextSubject.isPresent()) {
+            processSubject(contextData, nextSubject.get(), processedSubjects);
+            nextSubject = nextSubject(contextData, processedSubjects);
+        }
+    }
+
+    private void processSubjectsInParallel(Model contextData) {
+        Map<Resource, Integer> processedAt = new HashMap<>();
+        List<Resource> subjects = new ArrayList<>();
+        Optional<Resource> nextSubject = nextSubject(contextData, processedAt.keySet());
+
+        while (nextSubject.isPresent()) {
+            planSubject(contextData, nextSubject.get(), processedAt, subjects.size());
+            subjects.add(nextSubject.get());
+            nextSubject = nextSubject(contextData, processedAt.keySet());
+        }
+
+        int blocksPerTask = Math.max(MIN_BLOCKS_PER_TASK,
+                subjects.size() / (ForkJoinPool.getCommonPoolParallelism() * 4) + 1);
+        int tasks = (subjects.size() + blocksPerTask - 1) / blocksPerTask;
+
+        List<CharArrayWriter> blocks = IntStream.range(0, tasks).parallel()
+                .mapToObj(task -> renderBlocks(contextData, subjects, processedAt,
+                        task * blocksPerTask,
+                        Math.min(subjects.size(), (task + 1) * blocksPerTask)))
+                .toList();
+
+        try {
+            closePreviousStatement();
+
+            for (CharArrayWriter block : blocks) {
+                block.writeTo(writer);
             }
+        } catch (IOException e) {
+            throw new RDFHandlerException(e);
         }
+    }
 
-        bufferedStatements.clear();
+    private void planSubject(Model contextData, Resource subject,
+            Map<Resource, Integer> processedAt, int block) {
+        if (processedAt.containsKey(subject)) {
+            return;
+        }
+
+        for (Statement st : contextData.getStatements(subject, null, null)) {
+            if (st.getObject() instanceof BNode object && canInlineValue(contextData, object)) {
+                planSubject(contextData, object, processedAt, block);
+            }
+        }
+
+        processedAt.put(subject, block);
+    }
+
+    private CharArrayWriter renderBlocks(Model contextData, List<Resource> subjects,
+            Map<Resource, Integer> processedAt, int from, int to) {
+        CharArrayWriter out = new CharArrayWriter();
+        TurtleWriter fork = forkBlockWriter(out);
+        Set<Resource> processedSubjects = new HashSet<>() {
+            private static final long serialVersionUID = -2397146468322410154L;
+
+            @Override
+            public boolean contains(Object subject) {
+                Integer block = processedAt.get(subject);
+
+                return block != null && block < from || super.contains(subject);
+            }
+        };
+
+        for (int i = from; i < to; i++) {
+            fork.processSubject(contextData, subjects.get(i), processedSubjects);
+        }
+
+        try {
+            fork.closePreviousStatement();
+        } catch (IOException e) {
+            throw new RDFHandlerException(e);
+        }
+
+        return out;
+    }
+
+    private TurtleWriter forkBlockWriter(Writer out) {
+        TurtleWriter fork = new TurtleWriter(out, baseIRI);
+        fork.setWriterConfig(getWriterConfig());
+        fork.setModelFactory(modelFactory);
+        fork.setFirstPredicateInNewLine(firstPredicateInNewLine);
+        fork.setUseRdfType(useRdfType);
+        fork.writer.setIndentationString(writer.getIndentationString());
+        fork.namespaceTrie = namespaceTrie;
+        fork.bufferedStatements = bufferedStatements;
+        fork.xsdStringToPlainLiteral = xsdStringToPlainLiteral;
+        fork.prettyPrint = prettyPrint;
+        fork.inlineBNodes = inlineBNodes;
+        fork.abbreviateNumbers = abbreviateNumbers;
+        fork.blankNodeLabels = blankNodeLabels;
+
+        return fork;
     }
 
     private Optional<Resource> nextSubject(Model contextData, Set<Resource> processedSubjects) {
@@ -843,4 +1180,11 @@ public class TurtleWriter extends AbstractRDFWriter implements CharSink {
     private boolean isBuffering() {
         return inlineBNodes || prettyPrint;
     }
+
+    private boolean isOwned() {
+        assert owner == null || owner == Thread.currentThread()
+                : "Single-threaded writer used from " + Thread.currentThread();
+
+        return owner != null;
+    }
 }
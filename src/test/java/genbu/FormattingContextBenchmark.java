@@ -0,0 +1,106 @@
+package genbu;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import genbu.writer.IndentationStyle;
+
+public class FormattingContextBenchmark {
+    private static final int FILES = 20_000;
+
+    private static final int ROUNDS = 5;
+
+    private static final String SHARED_BLANK_NODES = """
+            @prefix ex: <http://example.org/> .
+
+            ex:a ex:related _:shared, [ ex:value _:shared ] .
+            ex:b ex:related _:shared .
+            _:shared ex:value 1 .
+            """;
+
+    private static final FormattingContext.Options OPTIONS = new FormattingContext.Options(
+            IndentationStyle.SPACE(2), Optional.empty(), true, false, false, false, false, false,
+            false);
+
+    private static final WritableByteChannel NULL_CHANNEL = new WritableByteChannel() {
+        @Override
+        public int write(ByteBuffer src) {
+            int remaining = src.remaining();
+            src.position(src.limit());
+
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {}
+    };
+
+    public static void main(String[] args) throws Exception {
+        List<byte[]> files = new ArrayList<>();
+
+        for (int i = 0; i < FILES; i++) {
+            files.add(("""
+                    @prefix ex: <http://example.org/> .
+                    @prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .
+
+                    ex:s%d a ex:Thing ;
+                      rdfs:label "Thing %d"@en ;
+                      ex:related [ ex:value %d ] .
+                    """).formatted(i, i, i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        var reused = new FormattingContext(OPTIONS);
+
+        checkIdempotent(reused, files.get(0));
+        checkIdempotent(reused, SHARED_BLANK_NODES.getBytes(StandardCharsets.UTF_8));
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            report("fresh context per file", round, files, () -> new FormattingContext(OPTIONS));
+            report("reused context", round, files, () -> reused);
+        }
+    }
+
+    private static void checkIdempotent(FormattingContext context, byte[] file) throws Exception {
+        var formatted = format(context, file);
+
+        if (!Arrays.equals(formatted, format(context, formatted))) {
+            throw new IllegalStateException("Formatting a formatted file changed it:\n"
+                    + new String(formatted, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static byte[] format(FormattingContext context, byte[] file) throws Exception {
+        var out = new ByteArrayOutputStream();
+
+        context.format(new ByteArrayInputStream(file), Channels.newChannel(out));
+
+        return out.toByteArray();
+    }
+
+    private static void report(String name, int round, List<byte[]> files,
+            Supplier<FormattingContext> contexts) throws Exception {
+        long start = System.nanoTime();
+
+        for (var file : files) {
+            contexts.get().format(new ByteArrayInputStream(file), NULL_CHANNEL);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("round %d, %-24s %10.0f files/s%n", round, name + ":",
+                files.size() / seconds);
+    }
+}
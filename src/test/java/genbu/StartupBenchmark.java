@@ -0,0 +1,81 @@
+package genbu;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class StartupBenchmark {
+    private static final int WARMUP_RUNS = 3;
+
+    private static final int RUNS = 20;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("""
+                    Usage: StartupBenchmark <file.ttl> <genbu.jar>[=<archive.jsa>]...
+
+                    Measures the time from starting a JVM until genbu writes its first byte of
+                    output, for each jar, optionally running it with an AppCDS archive, e.g.:
+
+                      mvn package && cp target/genbu-0.1.0.jar /tmp/genbu-default.jar
+                      mvn -Pstartup package
+                      java -cp target/test-classes genbu.StartupBenchmark \\
+                          src/test/resources/startup/sample.ttl \\
+                          /tmp/genbu-default.jar \\
+                          target/genbu-0.1.0.jar \\
+                          target/genbu-0.1.0.jar=target/genbu-0.1.0.jsa""");
+            System.exit(2);
+        }
+
+        var file = Path.of(args[0]);
+
+        for (var configuration : Arrays.copyOfRange(args, 1, args.length)) {
+            var parts = configuration.split("=", 2);
+            var command = new ArrayList<>(
+                    List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+
+            if (parts.length == 2) {
+                command.add("-XX:SharedArchiveFile=" + parts[1]);
+            }
+
+            command.addAll(List.of("-jar", parts[0], file.toString()));
+
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                timeToFirstOutput(command);
+            }
+
+            var times = new long[RUNS];
+
+            for (int i = 0; i < RUNS; i++) {
+                times[i] = timeToFirstOutput(command);
+            }
+
+            Arrays.sort(times);
+
+            System.out.printf("%-60s median %5d ms, min %5d ms, max %5d ms%n", configuration,
+                    times[RUNS / 2] / 1_000_000, times[0] / 1_000_000,
+                    times[RUNS - 1] / 1_000_000);
+        }
+    }
+
+    private static long timeToFirstOutput(List<String> command) throws Exception {
+        long start = System.nanoTime();
+        var process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        try (var out = process.getInputStream()) {
+            if (out.read() == -1) {
+                throw new IllegalStateException(String.join(" ", command) + ": No output");
+            }
+
+            long elapsed = System.nanoTime() - start;
+
+            out.transferTo(OutputStream.nullOutputStream());
+            process.waitFor();
+
+            return elapsed;
+        }
+    }
+}